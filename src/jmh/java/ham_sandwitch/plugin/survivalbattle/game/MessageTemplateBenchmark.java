@@ -0,0 +1,76 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+    private static final String TAB_FORMAT = "{name} §7[{hp}❤]";
+    private static final String TITLE_FORMAT = "§a資源収集 §f- §e{minutes}:{seconds:2}";
+    private static final String DISCORD_FORMAT = "[SurvivalBattle] ゲーム終了: 勝者: {winner} / 参加人数: {players}";
+
+    private MessageTemplate tab;
+    private MessageTemplate title;
+    private MessageTemplate discord;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        tab = MessageTemplate.compile(TAB_FORMAT, "name", "hp");
+        title = MessageTemplate.compile(TITLE_FORMAT, "minutes", "seconds");
+        discord = MessageTemplate.compile(DISCORD_FORMAT, "winner", "players");
+        if (!tab.render("Steve", 17).equals(TAB_FORMAT.replace("{name}", "Steve").replace("{hp}", String.format("%.0f", 17.0)))) {
+            throw new IllegalStateException("tab template mismatch");
+        }
+    }
+
+    @Benchmark
+    public String tabReplaceChain() {
+        double hp = (tick++ & 15) + 4.0;
+        return TAB_FORMAT.replace("{name}", "Steve").replace("{hp}", String.format("%.0f", hp));
+    }
+
+    @Benchmark
+    public String tabTemplate() {
+        int hp = (tick++ & 15) + 4;
+        return tab.render("Steve", hp);
+    }
+
+    @Benchmark
+    public String titleConcatFormat() {
+        int left = 600 - (tick++ % 600);
+        return "§a資源収集 §f- §e" + left / 60 + ":" + String.format("%02d", left % 60);
+    }
+
+    @Benchmark
+    public String titleTemplate() {
+        int left = 600 - (tick++ % 600);
+        return title.render(left / 60, left % 60);
+    }
+
+    @Benchmark
+    public String discordReplaceChain() {
+        return DISCORD_FORMAT.replace("{winner}", "赤チーム").replace("{players}", String.valueOf(tick++ & 31));
+    }
+
+    @Benchmark
+    public String discordTemplate() {
+        return discord.render("赤チーム", tick++ & 31);
+    }
+}
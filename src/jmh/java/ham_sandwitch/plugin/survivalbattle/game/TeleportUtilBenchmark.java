@@ -0,0 +1,173 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeleportUtilBenchmark {
+
+    private static final int SIZE = 256;
+    private static final int MAX_HEIGHT = 128;
+    private static final int ORIGINS = 1024;
+
+    private StubWorld world;
+    private int[] originX;
+    private int[] originY;
+    private int[] originZ;
+
+
+    static final class StubWorld implements TeleportUtil.BlockSource {
+        private final Material[] blocks = new Material[SIZE * SIZE * MAX_HEIGHT];
+        private final int[] heights = new int[SIZE * SIZE];
+
+        StubWorld(long seed) {
+            Random rnd = new Random(seed);
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    int height = 60 + (int) (8 * Math.sin(x / 11.0) + 6 * Math.cos(z / 7.0)) + rnd.nextInt(3);
+                    heights[x * SIZE + z] = height;
+                    for (int y = 0; y < MAX_HEIGHT; y++) {
+                        Material type;
+                        if (y < height - 3) type = Material.STONE;
+                        else if (y < height) type = Material.DIRT;
+                        else if (y == height) type = height < 62 ? Material.WATER : Material.GRASS_BLOCK;
+                        else type = Material.AIR;
+                        blocks[index(x, y, z)] = type;
+                    }
+                    int roll = rnd.nextInt(100);
+                    if (roll < 4) blocks[index(x, height, z)] = Material.LAVA;
+                    else if (roll < 7) blocks[index(x, height + 1, z)] = Material.CACTUS;
+                    else if (roll < 12) blocks[index(x, height + 1, z)] = Material.SHORT_GRASS;
+                    else if (roll < 16) {
+                        for (int y = height + 1; y < height + 5; y++) blocks[index(x, y, z)] = Material.OAK_LOG;
+                    }
+                }
+            }
+        }
+
+        private static int index(int x, int y, int z) {
+            return (y * SIZE + (x & (SIZE - 1))) * SIZE + (z & (SIZE - 1));
+        }
+
+        @Override
+        public Material getType(int x, int y, int z) {
+            if (y < 0 || y >= MAX_HEIGHT) return Material.VOID_AIR;
+            return blocks[index(x, y, z)];
+        }
+
+        @Override
+        public int getMaxHeight() {
+            return MAX_HEIGHT;
+        }
+
+        @Override
+        public int getHighestBlockY(int x, int z) {
+            return heights[(x & (SIZE - 1)) * SIZE + (z & (SIZE - 1))];
+        }
+    }
+
+
+    static final class PreviousSearch {
+        private static final int MAX_FALL_DISTANCE = 3;
+
+        static long search(TeleportUtil.BlockSource blocks, int x, int y, int z) {
+            if (isSafeLocation(blocks, x, y, z)) return pack(0, y, 0);
+            for (int dy = 0; dy <= 10; dy++) {
+                if (dy > 0 && isSafeLocation(blocks, x, y - dy, z)) return pack(0, y - dy, 0);
+                if (isSafeLocation(blocks, x, y + dy, z)) return pack(0, y + dy, 0);
+            }
+            for (int radius = 1; radius <= 5; radius++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        if (Math.abs(dx) != radius && Math.abs(dz) != radius) continue;
+                        for (int cy = y; cy >= y - 10 && cy >= 0; cy--) {
+                            if (isSafeLocation(blocks, x + dx, cy, z + dz)) return pack(dx, cy, dz);
+                        }
+                        for (int cy = y + 1; cy <= y + 10 && cy < blocks.getMaxHeight(); cy++) {
+                            if (isSafeLocation(blocks, x + dx, cy, z + dz)) return pack(dx, cy, dz);
+                        }
+                    }
+                }
+            }
+            return pack(0, blocks.getHighestBlockY(x, z) + 1, 0);
+        }
+
+        private static long pack(int dx, int y, int dz) {
+            return ((long) y << 16) | ((dx + 128) << 8) | (dz + 128);
+        }
+
+        private static boolean isSafeLocation(TeleportUtil.BlockSource blocks, int x, int y, int z) {
+            if (y < 0 || y >= blocks.getMaxHeight() - 1) return false;
+            Material feet = blocks.getType(x, y, z);
+            Material head = blocks.getType(x, y + 1, z);
+            Material ground = blocks.getType(x, y - 1, z);
+            if (!isPassable(feet) || !isPassable(head)) return false;
+            if (!ground.isSolid()) return false;
+            if (ground == Material.LAVA || ground == Material.FIRE || ground == Material.MAGMA_BLOCK
+                    || ground == Material.CACTUS || ground == Material.SWEET_BERRY_BUSH) return false;
+            for (int dy = 0; dy <= MAX_FALL_DISTANCE + 5; dy++) {
+                int checkY = y - dy - 1;
+                if (checkY < 0) return false;
+                if (blocks.getType(x, checkY, z).isSolid()) return dy <= MAX_FALL_DISTANCE;
+            }
+            return false;
+        }
+
+        private static boolean isPassable(Material type) {
+            return type.isAir() || !type.isSolid() || type == Material.WATER || type == Material.LAVA;
+        }
+    }
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        world = new StubWorld(42L);
+        Random rnd = new Random(7L);
+        originX = new int[ORIGINS];
+        originY = new int[ORIGINS];
+        originZ = new int[ORIGINS];
+        for (int i = 0; i < ORIGINS; i++) {
+            originX[i] = 16 + rnd.nextInt(SIZE - 32);
+            originZ[i] = 16 + rnd.nextInt(SIZE - 32);
+            originY[i] = 40 + rnd.nextInt(50);
+            long expected = PreviousSearch.search(world, originX[i], originY[i], originZ[i]);
+            long actual = TeleportUtil.searchPacked(world, originX[i], originY[i], originZ[i]);
+            if (expected != actual) {
+                throw new IllegalStateException("Search mismatch at " + originX[i] + "," + originY[i] + "," + originZ[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void previous(Blackhole bh) {
+        for (int i = 0; i < ORIGINS; i++) {
+            bh.consume(PreviousSearch.search(world, originX[i], originY[i], originZ[i]));
+        }
+    }
+
+    @Benchmark
+    public void tableDriven(Blackhole bh) {
+        for (int i = 0; i < ORIGINS; i++) {
+            bh.consume(TeleportUtil.searchPacked(world, originX[i], originY[i], originZ[i]));
+        }
+    }
+}
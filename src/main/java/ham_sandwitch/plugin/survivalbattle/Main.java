@@ -3,16 +3,26 @@ package ham_sandwitch.plugin.survivalbattle;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import ham_sandwitch.plugin.survivalbattle.commands.SbCommand;
 import ham_sandwitch.plugin.survivalbattle.commands.SbTabCompleter;
+import ham_sandwitch.plugin.survivalbattle.game.ArenaManager;
+import ham_sandwitch.plugin.survivalbattle.game.GameConfig;
 import ham_sandwitch.plugin.survivalbattle.game.GameManager;
+import ham_sandwitch.plugin.survivalbattle.game.WorkQueue;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsServer;
+import ham_sandwitch.plugin.survivalbattle.metrics.TimedListeners;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
 
 public class Main extends JavaPlugin {
 
+    private ArenaManager arenaManager;
     private GameManager gameManager;
     private ham_sandwitch.plugin.survivalbattle.discord.DiscordNotifier discordNotifier;
+    private MetricsServer metricsServer;
     private static Main instance;
     private String missingWaitingWorldName = null; 
 
@@ -20,6 +30,10 @@ public class Main extends JavaPlugin {
     public void onEnable() {
         instance = this;
         saveDefaultConfig();
+        GameConfig.install(GameConfig.parse(getConfig(), getLogger()));
+
+        metricsServer = new MetricsServer(this);
+        metricsServer.start();
 
         World defaultWorld = getServer().getWorlds().get(0);
 
@@ -78,16 +92,29 @@ public class Main extends JavaPlugin {
 
         Location waitingLocation = new Location(waitingWorld, waitX, waitY, waitZ, waitYaw, waitPitch);
 
-        this.gameManager = new GameManager(this, lobbyLocation, waitingLocation);
+        this.arenaManager = new ArenaManager(this, lobbyLocation, waitingLocation);
+        this.gameManager = arenaManager.getPrimary();
+
+        if (PluginScheduler.isFolia()) {
+            getLogger().info("Folia detected: game timers run on the global region, player and battle-world work on their owning regions.");
+            if (!gameManager.getWorldManager().isRollbackMode()) {
+                getLogger().warning("Folia cannot create or unload worlds at runtime. Set world_reset.mode to rollback and preload the arena world(s).");
+            }
+        }
 
         
         discordNotifier = new ham_sandwitch.plugin.survivalbattle.discord.DiscordNotifier(this, gameManager);
         try { discordNotifier.init(); } catch (Exception e) { getLogger().warning("DiscordNotifier init failed: " + e.getMessage()); }
 
         
-        getServer().getPluginManager().registerEvents(new ham_sandwitch.plugin.survivalbattle.game.GameEventListener(gameManager), this);
+        registerListener(new ham_sandwitch.plugin.survivalbattle.game.GameEventListener(arenaManager));
+        for (GameManager arena : arenaManager.getArenas()) {
+            registerListener(new ham_sandwitch.plugin.survivalbattle.game.BlockJournalListener(arena.getWorldManager()));
+            registerListener(new ham_sandwitch.plugin.survivalbattle.game.SpawnIndexListener(arena.getWorldManager()));
+            registerListener(new ham_sandwitch.plugin.survivalbattle.game.TabHpListener(arena.getTabHpDisplay()));
+        }
 
-        getCommand("sb").setExecutor(new SbCommand(gameManager, this));
+        getCommand("sb").setExecutor(new SbCommand(arenaManager, this));
         getCommand("sb").setTabCompleter(new SbTabCompleter());
 
         getLogger().info("SurvivalBattle Plugin enabled!");
@@ -95,15 +122,33 @@ public class Main extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        if (gameManager != null) {
-            gameManager.cleanup();
+        if (arenaManager != null) {
+            arenaManager.cleanup();
+        }
+        WorkQueue.shutdown();
+        if (metricsServer != null) {
+            metricsServer.stop();
         }
+        MetricsRegistry.get().clear();
         if (discordNotifier != null) {
             try { discordNotifier.shutdown(); } catch (Exception ignored) {}
         }
         getLogger().info("SurvivalBattle Plugin disabled!");
     }
 
+    
+    private void registerListener(Listener listener) {
+        if (metricsServer.isRunning()) {
+            TimedListeners.register(listener, this);
+        } else {
+            getServer().getPluginManager().registerEvents(listener, this);
+        }
+    }
+
+    public MetricsServer getMetricsServer() {
+        return metricsServer;
+    }
+
     public static Main getInstance() {
         return instance;
     }
@@ -112,6 +157,10 @@ public class Main extends JavaPlugin {
         return gameManager;
     }
 
+    public ArenaManager getArenaManager() {
+        return arenaManager;
+    }
+
     public ham_sandwitch.plugin.survivalbattle.discord.DiscordNotifier getDiscordNotifier() {
         return discordNotifier;
     }
@@ -120,4 +169,4 @@ public class Main extends JavaPlugin {
     public String getMissingWaitingWorldName() {
         return missingWaitingWorldName;
     }
-}
+}
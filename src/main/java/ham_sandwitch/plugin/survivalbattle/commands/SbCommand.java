@@ -1,23 +1,54 @@
 package ham_sandwitch.plugin.survivalbattle.commands;
 
+import ham_sandwitch.plugin.survivalbattle.Main;
+import ham_sandwitch.plugin.survivalbattle.game.ArenaManager;
+import ham_sandwitch.plugin.survivalbattle.game.GameConfig;
 import ham_sandwitch.plugin.survivalbattle.game.GameManager;
 import ham_sandwitch.plugin.survivalbattle.game.PlayerStats;
+import ham_sandwitch.plugin.survivalbattle.game.SpawnCandidateIndex;
+import ham_sandwitch.plugin.survivalbattle.game.WorkQueue;
+import ham_sandwitch.plugin.survivalbattle.game.WorldDeletionEngine;
+import ham_sandwitch.plugin.survivalbattle.game.WorldManager;
+import ham_sandwitch.plugin.survivalbattle.game.WorldTemplateManager;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
 import org.bukkit.ChatColor;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.util.List;
 import java.util.UUID;
 
 public class SbCommand implements CommandExecutor {
-    private final GameManager gameManager;
+    private final ArenaManager arenas;
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
 
-    public SbCommand(GameManager gameManager, JavaPlugin plugin) {
-        this.gameManager = gameManager;
+    public SbCommand(ArenaManager arenas, JavaPlugin plugin) {
+        this.arenas = arenas;
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+    }
+
+    private GameManager arenaFor(CommandSender sender) {
+        return sender instanceof Player ? arenas.getArenaFor((Player) sender) : arenas.getPrimary();
+    }
+
+    private GameManager resolveArena(CommandSender sender, String[] args, int index) {
+        if (args.length > index) {
+            try {
+                return arenas.getArena(Integer.parseInt(args[index]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return arenaFor(sender);
     }
 
     @Override
@@ -41,6 +72,10 @@ public class SbCommand implements CommandExecutor {
                 return handleDebugCommand(sender, args);
             case "reload":
                 return handleReloadCommand(sender);
+            case "template":
+                return handleTemplateCommand(sender, args);
+            case "arenas":
+                return handleArenasCommand(sender);
             case "help":
                 return sendHelpMessage(sender);
             default:
@@ -51,10 +86,15 @@ public class SbCommand implements CommandExecutor {
 
     private boolean handleGameCommand(CommandSender sender, String[] args) {
         if (args.length < 2) {
-            sender.sendMessage(ChatColor.RED + "使用法: /sb game <start|stats|stop>");
+            sender.sendMessage(ChatColor.RED + "使用法: /sb game <start|stats|stop> [アリーナ番号]");
             return false;
         }
         String subCommand = args[1].toLowerCase();
+        GameManager gameManager = resolveArena(sender, args, 2);
+        if (gameManager == null) {
+            sender.sendMessage(ChatColor.RED + "❌ アリーナ番号は 1〜" + arenas.size() + " で指定してください。");
+            return true;
+        }
 
         switch (subCommand) {
             case "start":
@@ -85,7 +125,7 @@ public class SbCommand implements CommandExecutor {
                 
             default:
                 sender.sendMessage(ChatColor.RED + "❌ 不明なゲームサブコマンドです。");
-                sender.sendMessage(ChatColor.GRAY + "使用法: /sb game <start|stats|stop>");
+                sender.sendMessage(ChatColor.GRAY + "使用法: /sb game <start|stats|stop> [アリーナ番号]");
                 return false;
         }
     }
@@ -114,7 +154,7 @@ public class SbCommand implements CommandExecutor {
 
     
     private void displayPlayerStats(CommandSender sender, UUID uuid, String playerName) {
-        PlayerStats stats = gameManager.getPlayerStats(uuid);
+        PlayerStats stats = arenas.getPrimary().getPlayerStats(uuid);
         
         sender.sendMessage(ChatColor.BLUE + "━━━━━ " + playerName + " の統計 ━━━━━");
         sender.sendMessage(ChatColor.GREEN + "総キル数: §f" + stats.getKills());
@@ -138,13 +178,18 @@ public class SbCommand implements CommandExecutor {
         }
         Player player = (Player) sender;
         
-        if (gameManager.getPhase() != GameManager.Phase.IDLE) {
+        GameManager gameManager = arenas.findJoinableArena();
+        if (gameManager == null) {
             player.sendMessage(ChatColor.RED + "❌ ゲーム進行中は参加できません。");
             player.sendMessage(ChatColor.GRAY + "ゲーム終了後に再度お試しください。");
             return true;
         }
         
+        arenas.removeFromQueues(player.getUniqueId());
         gameManager.teleportToWaiting(player);
+        if (arenas.size() > 1) {
+            player.sendMessage(ChatColor.AQUA + "アリーナ #" + (gameManager.getArenaId() + 1) + " に参加しました。");
+        }
         return true;
     }
 
@@ -154,7 +199,7 @@ public class SbCommand implements CommandExecutor {
             return true;
         }
         Player player = (Player) sender;
-        gameManager.teleportToLobby(player);
+        arenaFor(player).teleportToLobby(player);
         return true;
     }
 
@@ -165,11 +210,12 @@ public class SbCommand implements CommandExecutor {
         }
         
         if (args.length < 2) {
-            sender.sendMessage(ChatColor.RED + "使用法: /sb debug <on|off|fake> [数値]");
+            sender.sendMessage(ChatColor.RED + "使用法: /sb debug <on|off|fake|skip|perf> [数値]");
             return false;
         }
 
         String subCommand = args[1].toLowerCase();
+        GameManager gameManager = arenaFor(sender);
         
         switch (subCommand) {
             case "on":
@@ -206,6 +252,10 @@ public class SbCommand implements CommandExecutor {
                 
                 gameManager.debugSkipPhase(sender);
                 return true;
+
+            case "perf":
+                sendPerfReport(sender, gameManager);
+                return true;
                 
             default:
                 sender.sendMessage(ChatColor.RED + "❌ 不明なデバッグサブコマンドです。");
@@ -213,19 +263,175 @@ public class SbCommand implements CommandExecutor {
         }
     }
 
+    private void sendPerfReport(CommandSender sender, GameManager gameManager) {
+        WorldManager worldManager = gameManager.getWorldManager();
+        WorldDeletionEngine deletion = worldManager.getDeletionEngine();
+        sender.sendMessage(ChatColor.BLUE + "━━━━━ SurvivalBattle パフォーマンス ━━━━━");
+        sender.sendMessage(ChatColor.AQUA + "ワールド破棄: " + ChatColor.YELLOW + worldManager.getTeardownSummary());
+        sender.sendMessage(ChatColor.AQUA + "フォルダ削除: " + ChatColor.YELLOW + deletion.getTotalFilesDeleted() + " files / "
+                + (deletion.getTotalBytesFreed() / (1024 * 1024)) + "MB (待機中 " + deletion.getPendingCount() + ")");
+        SpawnCandidateIndex index = worldManager.getSpawnIndex();
+        if (index != null) {
+            sender.sendMessage(ChatColor.AQUA + "スポーン候補: " + ChatColor.YELLOW + index.getCandidateCount() + " (" + index.getIndexedChunks()
+                    + " chunks, 無効化 " + index.getInvalidations() + ", 解析 " + index.getAnalyzeMillis() + "ms)");
+        }
+        sender.sendMessage(ChatColor.AQUA + "テレポート: " + ChatColor.YELLOW + gameManager.getTeleportPipeline().getLastBatchSummary());
+        sender.sendMessage(ChatColor.AQUA + "フェーズ時計: " + ChatColor.YELLOW + gameManager.getGameTimer().getLastDriftSummary());
+        sender.sendMessage(ChatColor.AQUA + "フェーズ遷移: " + ChatColor.YELLOW + gameManager.getPhaseMachine().getLastTransitionSummary());
+        sender.sendMessage(ChatColor.AQUA + "作業キュー: " + ChatColor.YELLOW + WorkQueue.get(plugin).getSummary());
+        List<String> restores = gameManager.getMatchRestoration().getHistory();
+        sender.sendMessage(ChatColor.AQUA + "試合後復元: " + ChatColor.YELLOW + (restores.isEmpty() ? "none" : restores.get(0)));
+        String metricsAddress = plugin instanceof Main ? ((Main) plugin).getMetricsServer().getAddress() : null;
+        sender.sendMessage(ChatColor.AQUA + "メトリクス: " + ChatColor.YELLOW + (metricsAddress != null ? metricsAddress : "無効"));
+        sender.sendMessage(ChatColor.BLUE + "━━━━━━━━━━━━━━━━━━━━━━━━━━");
+    }
+
+    private boolean handleTemplateCommand(CommandSender sender, String[] args) {
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "❌ 権限がありません。");
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "使用法: /sb template <list|add|remove|bench> [フォルダ名]");
+            return false;
+        }
+
+        GameManager gameManager = arenaFor(sender);
+        WorldTemplateManager templates = gameManager.getWorldManager().getTemplateManager();
+        String subCommand = args[1].toLowerCase();
+
+        switch (subCommand) {
+            case "list":
+                sender.sendMessage(ChatColor.BLUE + "━━━━━ ワールドテンプレート ━━━━━");
+                sender.sendMessage(ChatColor.AQUA + "テンプレートモード: " + (templates.isEnabled() ? ChatColor.GREEN + "ON" : ChatColor.RED + "OFF"));
+                for (String name : templates.getTemplates()) {
+                    sender.sendMessage(ChatColor.GREEN + "- " + name + (templates.isValidTemplate(name) ? "" : ChatColor.RED + " (無効)"));
+                }
+                return true;
+
+            case "add":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "使用法: /sb template add <フォルダ名>");
+                    return false;
+                }
+                if (!templates.isValidTemplate(args[2])) {
+                    sender.sendMessage(ChatColor.RED + "❌ " + args[2] + " は有効なワールドフォルダではありません。(level.dat と region が必要)");
+                    return true;
+                }
+                if (templates.addTemplate(args[2])) {
+                    sender.sendMessage(ChatColor.GREEN + "✅ テンプレートに追加しました: " + args[2]);
+                } else {
+                    sender.sendMessage(ChatColor.YELLOW + "⚠️ 既にテンプレートに登録されています: " + args[2]);
+                }
+                return true;
+
+            case "remove":
+                if (args.length < 3) {
+                    sender.sendMessage(ChatColor.RED + "使用法: /sb template remove <フォルダ名>");
+                    return false;
+                }
+                if (templates.removeTemplate(args[2])) {
+                    sender.sendMessage(ChatColor.GREEN + "✅ テンプレートから削除しました: " + args[2]);
+                } else {
+                    sender.sendMessage(ChatColor.YELLOW + "⚠️ テンプレートに登録されていません: " + args[2]);
+                }
+                return true;
+
+            case "bench":
+                if (gameManager.getPhase() != GameManager.Phase.IDLE) {
+                    sender.sendMessage(ChatColor.RED + "❌ ゲーム進行中はベンチマークを実行できません。");
+                    return true;
+                }
+                String template = args.length >= 3 ? args[2] : templates.nextTemplate();
+                if (template == null || !templates.isValidTemplate(template)) {
+                    sender.sendMessage(ChatColor.RED + "❌ 有効なテンプレートがありません。");
+                    return true;
+                }
+                sender.sendMessage(ChatColor.YELLOW + "ベンチマークを開始します: " + template);
+                gameManager.getWorldManager().benchmarkTemplate(template, result -> {
+                    sender.sendMessage(ChatColor.GREEN + result);
+                    plugin.getLogger().info(result);
+                });
+                return true;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "❌ 不明なテンプレートサブコマンドです。");
+                return false;
+        }
+    }
+
     private boolean handleReloadCommand(CommandSender sender) {
         if (!sender.isOp()) {
             sender.sendMessage(ChatColor.RED + "❌ 権限がありません。");
             return true;
         }
         
-        try {
-            plugin.reloadConfig();
-            sender.sendMessage(ChatColor.GREEN + "✅ 設定ファイルを再読み込みしました。");
-        } catch (Exception e) {
-            sender.sendMessage(ChatColor.RED + "❌ 設定ファイルの読み込みに失敗しました。");
-            plugin.getLogger().severe("Config reload error: " + e.getMessage());
+        
+        File file = new File(plugin.getDataFolder(), "config.yml");
+        scheduler.runAsync(() -> {
+            YamlConfiguration yaml = new YamlConfiguration();
+            GameConfig parsed;
+            try {
+                yaml.load(file);
+                parsed = GameConfig.parse(yaml, plugin.getLogger());
+            } catch (Exception e) {
+                plugin.getLogger().severe("Config reload error: " + e.getMessage());
+                scheduler.runGlobal(() -> sender.sendMessage(ChatColor.RED + "❌ 設定ファイルの読み込みに失敗しました。"));
+                return;
+            }
+            scheduler.runGlobal(() -> {
+                try {
+                    replaceContents(plugin.getConfig(), yaml);
+                    GameConfig.install(parsed);
+                    arenas.onConfigReload();
+                    if (plugin instanceof ham_sandwitch.plugin.survivalbattle.Main && ((ham_sandwitch.plugin.survivalbattle.Main) plugin).getDiscordNotifier() != null) {
+                        ((ham_sandwitch.plugin.survivalbattle.Main) plugin).getDiscordNotifier().reload();
+                    }
+                    sender.sendMessage(ChatColor.GREEN + "✅ 設定ファイルを再読み込みしました。");
+                } catch (Exception e) {
+                    sender.sendMessage(ChatColor.RED + "❌ 設定ファイルの読み込みに失敗しました。");
+                    plugin.getLogger().severe("Config reload error: " + e.getMessage());
+                }
+            });
+        });
+        return true;
+    }
+
+    
+    private static void replaceContents(ConfigurationSection target, ConfigurationSection source) {
+        for (String key : target.getKeys(false)) {
+            target.set(key, null);
         }
+        for (String key : source.getKeys(false)) {
+            Object value = source.get(key);
+            if (value instanceof ConfigurationSection) {
+                replaceContents(target.createSection(key), (ConfigurationSection) value);
+            } else {
+                target.set(key, value);
+            }
+        }
+    }
+
+    private boolean handleArenasCommand(CommandSender sender) {
+        sender.sendMessage(ChatColor.BLUE + "━━━━━ アリーナ一覧 ━━━━━");
+        for (GameManager gm : arenas.getArenas()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(ChatColor.AQUA).append("#").append(gm.getArenaId() + 1).append(" ")
+                    .append(ChatColor.YELLOW).append(gm.getPhase())
+                    .append(ChatColor.GRAY).append(" 待機: ").append(gm.getQueuedPlayers().size())
+                    .append(" 生存: ").append(gm.getAlivePlayers().size());
+            if (gm.getPhase() != GameManager.Phase.IDLE) {
+                sb.append(" tick: ").append(gm.getGameTimer().getAverageTickMicros()).append("µs")
+                        .append(" (max ").append(gm.getGameTimer().getMaxTickMicros()).append("µs)");
+            }
+            World battle = gm.getWorldManager().getBattleWorld();
+            if (battle != null) {
+                sb.append(" チャンク: ").append(battle.getLoadedChunks().length)
+                        .append(" エンティティ: ").append(battle.getEntityCount());
+            }
+            sender.sendMessage(sb.toString());
+        }
+        sender.sendMessage(ChatColor.BLUE + "━━━━━━━━━━━━━━━━━━━━━━━━━━");
         return true;
     }
 
@@ -233,6 +439,7 @@ public class SbCommand implements CommandExecutor {
         sender.sendMessage(ChatColor.BLUE + "━━━━━ SurvivalBattle コマンド ━━━━━");
         sender.sendMessage(ChatColor.GREEN + "/sb join" + ChatColor.GRAY + " - 待機場へ移動");
         sender.sendMessage(ChatColor.GREEN + "/sb lobby" + ChatColor.GRAY + " - ロビーにテレポート");
+        sender.sendMessage(ChatColor.GREEN + "/sb arenas" + ChatColor.GRAY + " - アリーナ一覧");
         sender.sendMessage(ChatColor.GREEN + "/sb game start" + ChatColor.GRAY + " - ゲームを開始");
         sender.sendMessage(ChatColor.GREEN + "/sb game stats" + ChatColor.GRAY + " - ゲーム状態表示");
         sender.sendMessage(ChatColor.GREEN + "/sb game stop" + ChatColor.GRAY + " - ゲーム強制終了 (OP)");
@@ -240,9 +447,11 @@ public class SbCommand implements CommandExecutor {
         sender.sendMessage(ChatColor.GREEN + "/sb debug on|off" + ChatColor.GRAY + " - デバッグ切替 (OP)");
         sender.sendMessage(ChatColor.GREEN + "/sb debug fake <数>" + ChatColor.GRAY + " - ダミープレイヤー (OP)");
         sender.sendMessage(ChatColor.GREEN + "/sb debug skip" + ChatColor.GRAY + " - フェーズをスキップ（デバッグ時のみ）");
+        sender.sendMessage(ChatColor.GREEN + "/sb debug perf" + ChatColor.GRAY + " - パフォーマンス情報 (OP)");
         sender.sendMessage(ChatColor.GREEN + "/sb reload" + ChatColor.GRAY + " - 設定再読み込み (OP)");
+        sender.sendMessage(ChatColor.GREEN + "/sb template <list|add|remove|bench>" + ChatColor.GRAY + " - ワールドテンプレート管理 (OP)");
         sender.sendMessage(ChatColor.BLUE + "━━━━━━━━━━━━━━━━━━━━━━━━━━");
         return true;
     }
 }
-
+
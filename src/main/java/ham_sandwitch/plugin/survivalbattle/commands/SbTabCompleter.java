@@ -11,9 +11,10 @@ import java.util.stream.Collectors;
 
 public class SbTabCompleter implements TabCompleter {
 
-    private final List<String> MAIN_COMMANDS = Arrays.asList("game", "join", "lobby", "stats", "debug", "reload", "help");
+    private final List<String> MAIN_COMMANDS = Arrays.asList("game", "join", "lobby", "stats", "debug", "reload", "template", "arenas", "help");
     private final List<String> GAME_COMMANDS = Arrays.asList("start", "stats", "stop");
-    private final List<String> DEBUG_COMMANDS = Arrays.asList("on", "off", "fake");
+    private final List<String> DEBUG_COMMANDS = Arrays.asList("on", "off", "fake", "skip", "perf");
+    private final List<String> TEMPLATE_COMMANDS = Arrays.asList("list", "add", "remove", "bench");
     private final List<String> FAKE_COUNT_ARGS = Arrays.asList("1", "2", "3", "5", "10");
 
     @Override
@@ -26,7 +27,7 @@ public class SbTabCompleter implements TabCompleter {
             
             if (!sender.isOp()) {
                 List<String> nonOpCommands = new ArrayList<>(MAIN_COMMANDS);
-                nonOpCommands.removeAll(Arrays.asList("debug", "reload"));
+                nonOpCommands.removeAll(Arrays.asList("debug", "reload", "template"));
                 return filterList(nonOpCommands, args[0]);
             }
             return filterList(MAIN_COMMANDS, args[0]);
@@ -41,6 +42,11 @@ public class SbTabCompleter implements TabCompleter {
                         return Collections.emptyList();
                     }
                     return filterList(DEBUG_COMMANDS, args[1]);
+                case "template":
+                    if (!sender.isOp()) {
+                        return Collections.emptyList();
+                    }
+                    return filterList(TEMPLATE_COMMANDS, args[1]);
                 default:
                     return Collections.emptyList();
             }
@@ -64,4 +70,4 @@ public class SbTabCompleter implements TabCompleter {
                 .collect(Collectors.toList());
     }
 }
-
+
@@ -1,66 +1,125 @@
 package ham_sandwitch.plugin.survivalbattle.discord;
 
-import org.bukkit.Bukkit;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
 import org.bukkit.plugin.java.JavaPlugin;
 import ham_sandwitch.plugin.survivalbattle.game.GameManager;
+import ham_sandwitch.plugin.survivalbattle.game.MessageTemplate;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
 
 
 public class DiscordNotifier {
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
     private final GameManager gameManager;
+    private HttpClient httpClient;
+    private volatile MessageTemplate startTemplate;
+    private volatile MessageTemplate endTemplate;
 
     public DiscordNotifier(JavaPlugin plugin, GameManager gameManager) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
         this.gameManager = gameManager;
     }
 
-    
+
     public void init() {
-        
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        reload();
+        if (plugin.getConfig().getBoolean("discord.use_jda", false)) {
+            plugin.getLogger().warning("discord.use_jda is not supported in this build; notifications are sent via webhook_url only.");
+        }
+    }
+
+
+    public void reload() {
+        startTemplate = MessageTemplate.compile(plugin.getConfig().getString("discord.templates.start",
+                "[SurvivalBattle] ゲームが開始されます。参加人数: {players}"), "players", "arena");
+        endTemplate = MessageTemplate.compile(plugin.getConfig().getString("discord.templates.end",
+                "[SurvivalBattle] ゲーム終了: 勝者: {winner} / 参加人数: {players}"), "winner", "players", "arena");
     }
 
-    
+
     public void shutdown() {
-        
+        httpClient = null;
     }
 
-    
-    public void sendStartNotification(String message) {
+
+    public void sendStartNotification(int players, int arena) {
         if (!plugin.getConfig().getBoolean("discord.enabled", false)) return;
         if (!plugin.getConfig().getBoolean("discord.send_on_start", true)) return;
-        
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        String content = startTemplate.render(players, arena);
+        scheduler.runAsync(() -> {
             try {
-                
+                postWebhook(content);
             } catch (Exception e) {
                 plugin.getLogger().warning("Discord sendStartNotification failed: " + e.getMessage());
             }
         });
     }
 
-    
-    public void sendEndNotification(String message) {
+
+    public void sendEndNotification(String winner, int players, int arena) {
         if (!plugin.getConfig().getBoolean("discord.enabled", false)) return;
         if (!plugin.getConfig().getBoolean("discord.send_on_end", true)) return;
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        String content = endTemplate.render(winner, players, arena);
+        scheduler.runAsync(() -> {
             try {
-                
+                postWebhook(content);
             } catch (Exception e) {
                 plugin.getLogger().warning("Discord sendEndNotification failed: " + e.getMessage());
             }
         });
     }
 
-    
+
     public void sendPlain(String content) {
         if (!plugin.getConfig().getBoolean("discord.enabled", false)) return;
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        scheduler.runAsync(() -> {
             try {
-                
+                postWebhook(content);
             } catch (Exception e) {
                 plugin.getLogger().warning("Discord sendPlain failed: " + e.getMessage());
             }
         });
     }
-}
 
+
+    private void postWebhook(String content) throws Exception {
+        String url = plugin.getConfig().getString("discord.webhook_url", "");
+        HttpClient client = httpClient;
+        if (url == null || url.isEmpty() || client == null) return;
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"" + escapeJson(content) + "\"}"))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            plugin.getLogger().warning("Discord webhook returned HTTP " + response.statusCode());
+        }
+    }
+
+    private static String escapeJson(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class ArenaManager {
+
+    private final JavaPlugin plugin;
+    private final List<GameManager> arenas = new ArrayList<>();
+
+    public ArenaManager(JavaPlugin plugin, Location lobbyLocation, Location waitingLocation) {
+        this.plugin = plugin;
+
+        int count = Math.max(1, plugin.getConfig().getInt("arenas.count", 1));
+        GameManager primary = new GameManager(plugin, lobbyLocation, waitingLocation, 0, null);
+        arenas.add(primary);
+        for (int i = 1; i < count; i++) {
+            arenas.add(new GameManager(plugin, lobbyLocation, waitingLocation, i, primary));
+        }
+        for (GameManager gm : arenas) {
+            gm.setExclusiveQueue(count > 1);
+        }
+
+        WorldPool pool = primary.getWorldManager().getWorldPool();
+        pool.setIdleCheck(this::allArenasIdle);
+        pool.start();
+
+        plugin.getLogger().info("Arenas initialized: " + count);
+    }
+
+    public GameManager getPrimary() {
+        return arenas.get(0);
+    }
+
+    public List<GameManager> getArenas() {
+        return Collections.unmodifiableList(arenas);
+    }
+
+    public int size() {
+        return arenas.size();
+    }
+
+
+    public GameManager getArena(int arenaNumber) {
+        int index = arenaNumber - 1;
+        if (index < 0 || index >= arenas.size()) return null;
+        return arenas.get(index);
+    }
+
+    private boolean allArenasIdle() {
+        for (GameManager gm : arenas) {
+            if (gm.getPhase() != GameManager.Phase.IDLE) return false;
+        }
+        return true;
+    }
+
+
+    public GameManager findJoinableArena() {
+        int maxPlayers = GameConfig.get().arenaMaxPlayers();
+        GameManager best = null;
+        for (GameManager gm : arenas) {
+            if (gm.getPhase() != GameManager.Phase.IDLE) continue;
+            int queued = gm.getQueuedPlayers().size();
+            if (maxPlayers > 0 && queued >= maxPlayers) continue;
+            if (best == null || queued < best.getQueuedPlayers().size()) best = gm;
+        }
+        return best;
+    }
+
+
+    public GameManager getArenaFor(Player p) {
+        if (p == null) return getPrimary();
+        UUID id = p.getUniqueId();
+        for (GameManager gm : arenas) {
+            if (gm.getPhase() != GameManager.Phase.IDLE && gm.isParticipant(id)) return gm;
+        }
+        GameManager byWorld = getArenaForWorld(p.getWorld());
+        if (byWorld != null) return byWorld;
+        for (GameManager gm : arenas) {
+            if (gm.getQueuedPlayers().contains(id)) return gm;
+        }
+        return getPrimary();
+    }
+
+
+    public GameManager getArenaForWorld(World world) {
+        if (world == null) return null;
+        for (GameManager gm : arenas) {
+            if (world.equals(gm.getWorldManager().getBattleWorld())) return gm;
+        }
+        return null;
+    }
+
+    public void removeFromQueues(UUID id) {
+        for (GameManager gm : arenas) {
+            gm.getQueuedPlayers().remove(id);
+        }
+    }
+
+    public void onConfigReload() {
+        getPrimary().getWorldManager().getWorldPool().start();
+        for (GameManager gm : arenas) {
+            gm.reloadTemplates();
+        }
+    }
+
+    public void cleanup() {
+        for (int i = arenas.size() - 1; i >= 0; i--) {
+            arenas.get(i).cleanup();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import net.kyori.adventure.audience.Audience;
+
+public class AudienceIndex {
+
+    public enum Group {
+        WAITING, PARTICIPANTS, ALIVE, SPECTATORS, OPS
+    }
+
+    private final GameManager gameManager;
+    private final EnumMap<Group, Map<UUID, Player>> members = new EnumMap<>(Group.class);
+    private final EnumMap<Group, Audience> audiences = new EnumMap<>(Group.class);
+
+    public AudienceIndex(GameManager gameManager) {
+        this.gameManager = gameManager;
+        for (Group g : Group.values()) {
+            Map<UUID, Player> players = new ConcurrentHashMap<>();
+            members.put(g, players);
+            audiences.put(g, Audience.audience(players.values()));
+        }
+    }
+
+
+    public void update(Player p) {
+        if (p == null) return;
+        UUID id = p.getUniqueId();
+        boolean online = p.isOnline();
+        for (Group g : Group.values()) {
+            if (online && matches(g, p)) members.get(g).put(id, p);
+            else members.get(g).remove(id);
+        }
+    }
+
+    public void remove(Player p) {
+        if (p == null) return;
+        for (Map<UUID, Player> players : members.values()) {
+            players.remove(p.getUniqueId());
+        }
+    }
+
+
+    public void resync() {
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            update(p);
+        }
+        for (Map<UUID, Player> players : members.values()) {
+            players.values().removeIf(p -> !p.isOnline());
+        }
+    }
+
+    private boolean matches(Group group, Player p) {
+        UUID id = p.getUniqueId();
+        switch (group) {
+            case WAITING:
+                World waitingWorld = gameManager.getWaitingLocation().getWorld();
+                return waitingWorld != null && p.getWorld().equals(waitingWorld) && gameManager.isQueuedHere(p);
+            case PARTICIPANTS:
+                return gameManager.isParticipant(id);
+            case ALIVE:
+                return gameManager.getAlivePlayers().contains(id);
+            case SPECTATORS:
+                return gameManager.getIdleSpectators().contains(id)
+                        || (gameManager.isParticipant(id) && !gameManager.getAlivePlayers().contains(id));
+            case OPS:
+                return p.isOp();
+            default:
+                return false;
+        }
+    }
+
+
+    public Audience get(Group group) {
+        return audiences.get(group);
+    }
+
+    public int size(Group group) {
+        return members.get(group).size();
+    }
+}
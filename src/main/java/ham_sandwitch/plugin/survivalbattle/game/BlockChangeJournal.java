@@ -0,0 +1,413 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class BlockChangeJournal {
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final World world;
+    private final int minY;
+    private final Path spillFile;
+    private final int maxEntriesInMemory;
+
+    private final List<BlockData> palette = new ArrayList<>();
+    private final Map<BlockData, Integer> paletteIndex = new HashMap<>();
+    private final LinkedHashMap<Long, ChunkLog> chunks = new LinkedHashMap<>();
+    private final List<long[]> spilledSegments = new ArrayList<>();
+    private int entriesInMemory = 0;
+    private long totalEntries = 0L;
+    private DataOutputStream spillOut;
+    private long spillOffset = 0L;
+
+    private volatile boolean recording = true;
+    private TaskHandle replayTask;
+    private Replay replay;
+
+    public BlockChangeJournal(JavaPlugin plugin, World world, Path spillFile, int maxEntriesInMemory) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.world = world;
+        this.minY = world.getMinHeight();
+        this.spillFile = spillFile;
+        this.maxEntriesInMemory = Math.max(1024, maxEntriesInMemory);
+    }
+
+    private static final class ChunkLog {
+        final long chunkKey;
+        int[] positions;
+        int[] states;
+        int size;
+        private int[] seen;
+        private int seenCount;
+
+        ChunkLog(long chunkKey, int capacity) {
+            this.chunkKey = chunkKey;
+            this.positions = new int[capacity];
+            this.states = new int[capacity];
+            this.seen = new int[Math.max(16, Integer.highestOneBit(capacity) << 1)];
+        }
+
+        boolean markSeen(int pos) {
+            if ((seenCount + 1) * 2 > seen.length) rehash(seen.length << 1);
+            int v = pos + 1;
+            int mask = seen.length - 1;
+            int i = mix(v) & mask;
+            while (seen[i] != 0) {
+                if (seen[i] == v) return false;
+                i = (i + 1) & mask;
+            }
+            seen[i] = v;
+            seenCount++;
+            return true;
+        }
+
+        void add(int pos, int state) {
+            if (size == positions.length) {
+                positions = java.util.Arrays.copyOf(positions, size << 1);
+                states = java.util.Arrays.copyOf(states, size << 1);
+            }
+            positions[size] = pos;
+            states[size] = state;
+            size++;
+        }
+
+        void clearEntries() {
+            positions = new int[16];
+            states = new int[16];
+            size = 0;
+        }
+
+        private void rehash(int capacity) {
+            int[] old = seen;
+            seen = new int[capacity];
+            int mask = capacity - 1;
+            for (int v : old) {
+                if (v == 0) continue;
+                int i = mix(v) & mask;
+                while (seen[i] != 0) i = (i + 1) & mask;
+                seen[i] = v;
+            }
+        }
+
+        private static int mix(int v) {
+            int h = v * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public synchronized long getTotalEntries() {
+        return totalEntries;
+    }
+
+    public synchronized boolean isReplaying() {
+        return replay != null;
+    }
+
+
+    public void record(Block block) {
+        if (block == null) return;
+        record(block.getX(), block.getY(), block.getZ(), block.getBlockData());
+    }
+
+    public void record(BlockState state) {
+        if (state == null) return;
+        record(state.getX(), state.getY(), state.getZ(), state.getBlockData());
+    }
+
+    private void record(int x, int y, int z, BlockData data) {
+        if (!recording || data == null) return;
+        if (y < minY || y >= world.getMaxHeight()) return;
+        synchronized (this) {
+            if (recording) append(x, y, z, data);
+        }
+    }
+
+    private void append(int x, int y, int z, BlockData data) {
+        long key = ChunkPregenerator.chunkKey(x >> 4, z >> 4);
+        int pos = ((y - minY) << 8) | ((z & 15) << 4) | (x & 15);
+
+        ChunkLog log = chunks.get(key);
+        if (log == null) {
+            log = new ChunkLog(key, 16);
+            chunks.put(key, log);
+        }
+        if (!log.markSeen(pos)) return;
+
+        Integer stateId = paletteIndex.get(data);
+        if (stateId == null) {
+            stateId = palette.size();
+            palette.add(data);
+            paletteIndex.put(data, stateId);
+        }
+        log.add(pos, stateId);
+        entriesInMemory++;
+        totalEntries++;
+
+        if (entriesInMemory > maxEntriesInMemory) {
+            spill();
+        }
+    }
+
+
+    private void spill() {
+        try {
+            if (spillOut == null) {
+                Files.createDirectories(spillFile.getParent());
+                spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16));
+                spillOffset = 0L;
+            }
+            int written = 0;
+            for (ChunkLog log : chunks.values()) {
+                if (log.size == 0) continue;
+                written++;
+                spilledSegments.add(new long[] {spillOffset, log.size});
+                spillOut.writeLong(log.chunkKey);
+                spillOut.writeInt(log.size);
+                for (int i = 0; i < log.size; i++) {
+                    spillOut.writeInt(log.positions[i]);
+                    spillOut.writeInt(log.states[i]);
+                }
+                spillOffset += 12L + 8L * log.size;
+            }
+            spillOut.flush();
+            plugin.getLogger().info("Block journal spilled " + entriesInMemory + " entries (" + written + " chunks) to " + spillFile.getFileName());
+            for (ChunkLog log : chunks.values()) log.clearEntries();
+            entriesInMemory = 0;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to spill block journal; keeping entries in memory: " + e.getMessage());
+        }
+    }
+
+
+    public synchronized void startReplay(int tickBudgetMillis, Runnable onComplete) {
+        recording = false;
+        closeSpillOutput();
+
+        for (Entity entity : world.getEntities()) {
+            if (!(entity instanceof Player)) scheduler.runNowOrForEntity(entity, entity::remove);
+        }
+
+        List<ChunkLog> inMemory = new ArrayList<>(chunks.size());
+        for (ChunkLog log : chunks.values()) {
+            if (log.size > 0) inMemory.add(log);
+        }
+        chunks.clear();
+        entriesInMemory = 0;
+
+        long budgetNanos = Math.max(1, tickBudgetMillis) * 1_000_000L;
+        plugin.getLogger().info("Rolling back " + totalEntries + " block changes in " + world.getName());
+
+        replay = new Replay(inMemory, budgetNanos, onComplete);
+        replay.scheduleNext();
+    }
+
+
+    public synchronized void completeReplayNow() {
+        if (replay == null) return;
+        if (replayTask != null) {
+            replayTask.cancel();
+            replayTask = null;
+        }
+        replay.step(Long.MAX_VALUE, true);
+    }
+
+    private final class Replay implements Runnable {
+        private final List<ChunkLog> inMemory;
+        private final long budgetNanos;
+        private final Runnable onComplete;
+        private final long start = System.nanoTime();
+        private int memoryIndex;
+        private int spillIndex;
+        private ChunkLog current;
+        private int cursor;
+        private volatile boolean loading;
+        private int ticks;
+        private long applied;
+        private boolean finished;
+
+        Replay(List<ChunkLog> inMemory, long budgetNanos, Runnable onComplete) {
+            this.inMemory = inMemory;
+            this.budgetNanos = budgetNanos;
+            this.onComplete = onComplete;
+            this.memoryIndex = inMemory.size() - 1;
+            this.spillIndex = spilledSegments.size() - 1;
+        }
+
+        @Override
+        public void run() {
+            synchronized (BlockChangeJournal.this) {
+                if (replay != this) return;
+                replayTask = null;
+                step(System.nanoTime() + budgetNanos, false);
+                if (!finished && replay == this) scheduleNext();
+            }
+        }
+
+
+        void scheduleNext() {
+            if (current == null) {
+                current = nextSegment();
+                if (current == null) {
+                    finish();
+                    return;
+                }
+                cursor = current.size - 1;
+            }
+            replayTask = scheduler.runAtLater(world, ChunkPregenerator.chunkX(current.chunkKey), ChunkPregenerator.chunkZ(current.chunkKey), this, 1L);
+        }
+
+        void step(long deadline, boolean synchronous) {
+            if (finished) return;
+            ticks++;
+            boolean regionBound = !synchronous && PluginScheduler.isFolia();
+            while (System.nanoTime() < deadline) {
+                if (current == null) {
+                    current = nextSegment();
+                    if (current == null) {
+                        finish();
+                        return;
+                    }
+                    cursor = current.size - 1;
+                }
+
+                int cx = ChunkPregenerator.chunkX(current.chunkKey);
+                int cz = ChunkPregenerator.chunkZ(current.chunkKey);
+                if (synchronous) {
+                    world.getChunkAt(cx, cz);
+                } else if (!world.isChunkLoaded(cx, cz) || loading) {
+                    if (!loading) {
+                        loading = true;
+                        world.getChunkAtAsync(cx, cz).whenComplete((chunk, ex) -> {
+                            if (chunk != null) chunk.addPluginChunkTicket(plugin);
+                            loading = false;
+                        });
+                    }
+                    return;
+                }
+
+                int baseX = cx << 4;
+                int baseZ = cz << 4;
+                while (cursor >= 0 && System.nanoTime() < deadline) {
+                    int pos = current.positions[cursor];
+                    BlockData data = palette.get(current.states[cursor]);
+                    cursor--;
+                    world.getBlockAt(baseX + (pos & 15), (pos >> 8) + minY, baseZ + ((pos >> 4) & 15)).setBlockData(data, false);
+                    applied++;
+                }
+                if (cursor < 0) {
+                    world.removePluginChunkTicket(cx, cz, plugin);
+                    current = null;
+                    if (regionBound) return;
+                }
+            }
+        }
+
+        private ChunkLog nextSegment() {
+            if (memoryIndex >= 0) {
+                return inMemory.get(memoryIndex--);
+            }
+            while (spillIndex >= 0) {
+                long[] segment = spilledSegments.get(spillIndex--);
+                ChunkLog log = readSegment(segment[0], (int) segment[1]);
+                if (log != null) return log;
+            }
+            return null;
+        }
+
+        private void finish() {
+            finished = true;
+            if (replayTask != null) {
+                replayTask.cancel();
+                replayTask = null;
+            }
+            replay = null;
+            world.removePluginChunkTickets(plugin);
+            deleteSpillFile();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+            plugin.getLogger().info("Rollback finished: " + world.getName() + " (" + applied + " blocks restored over "
+                    + ticks + " ticks, " + elapsedMs + "ms)");
+            if (onComplete != null) onComplete.run();
+        }
+    }
+
+    private ChunkLog readSegment(long offset, int size) {
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(12 + 8 * size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) break;
+            }
+            buffer.flip();
+            long key = buffer.getLong();
+            int count = buffer.getInt();
+            ChunkLog log = new ChunkLog(key, Math.max(1, count));
+            for (int i = 0; i < count; i++) {
+                log.positions[i] = buffer.getInt();
+                log.states[i] = buffer.getInt();
+            }
+            log.size = count;
+            return log;
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to read block journal segment at " + offset + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void closeSpillOutput() {
+        if (spillOut == null) return;
+        try {
+            spillOut.close();
+        } catch (IOException ignored) {}
+        spillOut = null;
+    }
+
+    private void deleteSpillFile() {
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to delete block journal spill file: " + e.getMessage());
+        }
+    }
+
+
+    public synchronized void discard() {
+        recording = false;
+        if (replayTask != null) {
+            replayTask.cancel();
+            replayTask = null;
+        }
+        replay = null;
+        closeSpillOutput();
+        deleteSpillFile();
+        chunks.clear();
+        spilledSegments.clear();
+    }
+}
@@ -0,0 +1,208 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+
+public class BlockJournalListener implements Listener {
+    private static final BlockFace[] NEIGHBOURS = {
+            BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST
+    };
+    private static final int MAX_STACK_HEIGHT = 32;
+
+    private final WorldManager worldManager;
+
+    public BlockJournalListener(WorldManager worldManager) {
+        this.worldManager = worldManager;
+    }
+
+    private BlockChangeJournal journalFor(World world) {
+        BlockChangeJournal journal = worldManager.getActiveJournal();
+        if (journal == null || world == null || !world.equals(journal.getWorld())) return null;
+        return journal;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        Block block = event.getBlock();
+        journal.record(block);
+        for (BlockFace face : NEIGHBOURS) {
+            journal.record(block.getRelative(face));
+        }
+
+        Material type = block.getType();
+        Block above = block.getRelative(BlockFace.UP);
+        for (int i = 0; i < MAX_STACK_HEIGHT && above.getType() == type; i++) {
+            above = above.getRelative(BlockFace.UP);
+            journal.record(above);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        if (event instanceof BlockMultiPlaceEvent) {
+            for (BlockState state : ((BlockMultiPlaceEvent) event).getReplacedBlockStates()) {
+                journal.record(state);
+            }
+        } else {
+            journal.record(event.getBlockReplacedState());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        BlockChangeJournal journal = journalFor(event.getLocation().getWorld());
+        if (journal == null) return;
+        for (Block block : event.blockList()) {
+            journal.record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+        for (Block block : event.blockList()) {
+            journal.record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        BlockChangeJournal journal = journalFor(event.getToBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+        journal.record(event.getBlock().getRelative(event.getDirection()));
+        for (Block block : event.getBlocks()) {
+            journal.record(block);
+            journal.record(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+        journal.record(event.getBlock().getRelative(event.getDirection().getOppositeFace()));
+        for (Block block : event.getBlocks()) {
+            journal.record(block);
+            journal.record(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        BlockChangeJournal journal = journalFor(event.getBlock().getWorld());
+        if (journal == null) return;
+        journal.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        BlockChangeJournal journal = journalFor(event.getWorld());
+        if (journal == null) return;
+        for (BlockState state : event.getBlocks()) {
+            journal.record(state.getBlock());
+        }
+    }
+}
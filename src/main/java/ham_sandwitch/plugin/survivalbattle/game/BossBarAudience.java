@@ -0,0 +1,70 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+
+import net.kyori.adventure.audience.Audience;
+
+public class BossBarAudience {
+
+    private final GameManager gameManager;
+    private final BossBar bossBar;
+    private final Map<UUID, Player> members = new ConcurrentHashMap<>();
+    private final Audience audience = Audience.audience(members.values());
+
+    public BossBarAudience(GameManager gameManager, BossBar bossBar) {
+        this.gameManager = gameManager;
+        this.bossBar = bossBar;
+    }
+
+
+    public void update(Player p) {
+        if (p == null) return;
+        if (p.isOnline() && gameManager.shouldSeeBossBar(p)) {
+            if (members.put(p.getUniqueId(), p) == null) {
+                try { bossBar.addPlayer(p); } catch (Exception ignored) {}
+            }
+        } else {
+            remove(p);
+        }
+    }
+
+    public void remove(Player p) {
+        if (p == null) return;
+        if (members.remove(p.getUniqueId()) != null) {
+            try { bossBar.removePlayer(p); } catch (Exception ignored) {}
+        }
+    }
+
+
+    public void resync() {
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            update(p);
+        }
+        members.values().removeIf(p -> !p.isOnline());
+    }
+
+    public void clear() {
+        members.clear();
+        try { bossBar.removeAll(); } catch (Exception ignored) {}
+    }
+
+
+    public Audience audience() {
+        return audience;
+    }
+
+    public Collection<Player> players() {
+        return members.values();
+    }
+
+    public int size() {
+        return members.size();
+    }
+}
@@ -0,0 +1,131 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class ChunkPregenerator {
+
+    private final JavaPlugin plugin;
+    private final World world;
+    private final long[] chunkKeys;
+    private final int chunksPerTick;
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private int nextIndex = 0;
+    private long startNanos;
+    private TaskHandle task;
+
+    public ChunkPregenerator(JavaPlugin plugin, World world, long[] chunkKeys, int chunksPerTick, int maxInFlight) {
+        this.plugin = plugin;
+        this.world = world;
+        this.chunkKeys = chunkKeys;
+        this.chunksPerTick = Math.max(1, chunksPerTick);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+
+    public static long[] planArea(int spawnX, int spawnZ, int spawnRadiusChunks, double borderCenterX, double borderCenterZ, double borderSize) {
+        LinkedHashSet<Long> ordered = new LinkedHashSet<>();
+        addSpiral(ordered, spawnX >> 4, spawnZ >> 4, Math.max(0, spawnRadiusChunks));
+        int borderRadiusChunks = (int) Math.ceil(Math.max(0.0, borderSize) / 2.0 / 16.0);
+        addSpiral(ordered, (int) Math.floor(borderCenterX) >> 4, (int) Math.floor(borderCenterZ) >> 4, borderRadiusChunks);
+
+        long[] keys = new long[ordered.size()];
+        int i = 0;
+        for (Long key : ordered) keys[i++] = key;
+        return keys;
+    }
+
+
+    private static void addSpiral(LinkedHashSet<Long> out, int centerX, int centerZ, int radius) {
+        out.add(chunkKey(centerX, centerZ));
+        for (int r = 1; r <= radius; r++) {
+            for (int dx = -r; dx <= r; dx++) {
+                out.add(chunkKey(centerX + dx, centerZ - r));
+            }
+            for (int dz = -r + 1; dz <= r; dz++) {
+                out.add(chunkKey(centerX + r, centerZ + dz));
+            }
+            for (int dx = r - 1; dx >= -r; dx--) {
+                out.add(chunkKey(centerX + dx, centerZ + r));
+            }
+            for (int dz = r - 1; dz > -r; dz--) {
+                out.add(chunkKey(centerX - r, centerZ + dz));
+            }
+        }
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    public void start() {
+        if (task != null) return;
+        startNanos = System.nanoTime();
+        plugin.getLogger().info("Pregenerating " + chunkKeys.length + " chunks in " + world.getName());
+        task = new PluginScheduler(plugin).runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    public void cancel() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            if (!isDone()) {
+                plugin.getLogger().info("Pregeneration stopped at " + getPercent() + "% (" + completed.get() + "/" + chunkKeys.length + ")");
+            }
+        }
+    }
+
+    private void tick() {
+        int submitted = 0;
+        while (submitted < chunksPerTick && inFlight.get() < maxInFlight && nextIndex < chunkKeys.length) {
+            long key = chunkKeys[nextIndex++];
+            submitted++;
+            inFlight.incrementAndGet();
+            world.getChunkAtAsync(chunkX(key), chunkZ(key), true).whenComplete((chunk, ex) -> {
+                inFlight.decrementAndGet();
+                if (ex != null || chunk == null) failed.incrementAndGet();
+                completed.incrementAndGet();
+            });
+        }
+
+        if (isDone()) {
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+            plugin.getLogger().info("Pregeneration finished: " + chunkKeys.length + " chunks in " + elapsedMs + "ms (failed " + failed.get() + ")");
+            if (task != null) {
+                task.cancel();
+                task = null;
+            }
+        }
+    }
+
+    public boolean isDone() {
+        return completed.get() >= chunkKeys.length;
+    }
+
+    public double getProgress() {
+        if (chunkKeys.length == 0) return 1.0;
+        return Math.min(1.0, (double) completed.get() / chunkKeys.length);
+    }
+
+    public int getPercent() {
+        return (int) Math.floor(getProgress() * 100.0);
+    }
+}
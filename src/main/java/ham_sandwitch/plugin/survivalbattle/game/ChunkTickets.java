@@ -0,0 +1,67 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
+public class ChunkTickets {
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final Map<String, Set<Long>> held = new ConcurrentHashMap<>();
+
+    public ChunkTickets(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+    }
+
+
+    public CompletableFuture<Chunk> hold(Location loc) {
+        if (loc == null || loc.getWorld() == null) return CompletableFuture.completedFuture(null);
+        World world = loc.getWorld();
+        int cx = loc.getBlockX() >> 4;
+        int cz = loc.getBlockZ() >> 4;
+        long key = ChunkPregenerator.chunkKey(cx, cz);
+        Set<Long> keys = held.computeIfAbsent(world.getName(), k -> ConcurrentHashMap.newKeySet());
+        if (!keys.add(key)) return world.getChunkAtAsync(cx, cz, true);
+        return world.getChunkAtAsync(cx, cz, true).thenApply(chunk -> {
+            if (keys.contains(key)) chunk.addPluginChunkTicket(plugin);
+            return chunk;
+        });
+    }
+
+    public void releaseAll() {
+        if (!plugin.isEnabled()) {
+            
+            held.clear();
+            return;
+        }
+        for (Map.Entry<String, Set<Long>> entry : held.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            Set<Long> keys = entry.getValue();
+            for (Long key : keys.toArray(new Long[0])) {
+                keys.remove(key);
+                if (world == null) continue;
+                int cx = ChunkPregenerator.chunkX(key);
+                int cz = ChunkPregenerator.chunkZ(key);
+                scheduler.runAt(world, cx, cz, () -> world.removePluginChunkTicket(cx, cz, plugin));
+            }
+        }
+        held.clear();
+    }
+
+    public int size() {
+        int total = 0;
+        for (Set<Long> keys : held.values()) total += keys.size();
+        return total;
+    }
+}
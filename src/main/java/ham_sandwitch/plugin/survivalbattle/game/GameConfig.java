@@ -0,0 +1,158 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+public record GameConfig(
+        int countdownSeconds,
+        int minPlayers,
+        int collectionSeconds,
+        int pvpSeconds,
+        int borderShrinkSeconds,
+        double borderFinalSize,
+        double pvpInitialBorder,
+        int spawnProtectionSeconds,
+        int spawnPlanLeadSeconds,
+        double teamSeparation,
+        double minTeamSeparation,
+        double playerSpread,
+        double playerSeparation,
+        int pvpPrefetchSeconds,
+        int pregenWaitPercent,
+        int pregenMaxWaitSeconds,
+        boolean teamsEnabled,
+        boolean teamSelectionInWaiting,
+        int teleportPlayersPerTick,
+        int workQueueBudgetMillis,
+        int worldEmptyTimeoutSeconds,
+        int templateCopyThreads,
+        int arenaMaxPlayers,
+        boolean tabHpEnabled,
+        String tabHpFormat,
+        Map<Material, Integer> startItems,
+        List<PotionEffect> startEffects) {
+
+    private static final int INFINITE_EFFECT_TICKS = 2_000_000;
+
+    private static volatile GameConfig current = parse(new YamlConfiguration(), null);
+
+    public GameConfig {
+        startItems = Collections.unmodifiableMap(new LinkedHashMap<>(startItems));
+        startEffects = List.copyOf(startEffects);
+    }
+
+
+    public static GameConfig get() {
+        return current;
+    }
+
+    public static void install(GameConfig config) {
+        if (config != null) current = config;
+    }
+
+
+    public static GameConfig parse(ConfigurationSection cfg, Logger log) {
+        return new GameConfig(
+                atLeast(cfg, log, "settings.countdown", 10, 1),
+                atLeast(cfg, log, "settings.min_players", 2, 1),
+                atLeast(cfg, log, "game.collection_time_seconds", 600, 1),
+                atLeast(cfg, log, "game.pvp_time_seconds", 900, 1),
+                atLeast(cfg, log, "game.border_shrink_duration_seconds", 300, 0),
+                atLeast(cfg, log, "game.border_final_size", 5.0, 1.0),
+                atLeast(cfg, log, "game.pvp_initial_border", 150.0, 1.0),
+                atLeast(cfg, log, "pvp.random_spawn.spawn_protection_seconds", 3, 0),
+                atLeast(cfg, log, "pvp.spawn_plan.lead_seconds", 45, 0),
+                atLeast(cfg, log, "pvp.spawn_plan.team_separation", 0.0, 0.0),
+                atLeast(cfg, log, "pvp.spawn_plan.min_team_separation", 8.0, 0.0),
+                atLeast(cfg, log, "pvp.spawn_plan.player_spread", 6.0, 0.0),
+                atLeast(cfg, log, "pvp.spawn_plan.player_separation", 2.0, 0.0),
+                atLeast(cfg, log, "pvp.prefetch_seconds", 30, 0),
+                Math.max(0, Math.min(100, cfg.getInt("pregen.wait_for_percent", 0))),
+                atLeast(cfg, log, "pregen.max_wait_seconds", 30, 0),
+                cfg.getBoolean("teams.enabled", true),
+                cfg.getBoolean("teams.allow_selection_in_waiting", true),
+                atLeast(cfg, log, "teleport.players_per_tick", 5, 1),
+                atLeast(cfg, log, "work_queue.tick_budget_ms", 2, 1),
+                atLeast(cfg, log, "world_teardown.empty_timeout_seconds", 10, 1),
+                atLeast(cfg, log, "world_template.copy_threads", 4, 1),
+                atLeast(cfg, log, "arenas.max_players", 0, 0),
+                cfg.getBoolean("display.tab_hp_enabled", true),
+                cfg.getString("display.tab_hp_format", "{name} §7[{hp}❤]"),
+                parseItems(cfg.getConfigurationSection("items"), log),
+                parseEffects(cfg.getConfigurationSection("effects"), log));
+    }
+
+    private static int atLeast(ConfigurationSection cfg, Logger log, String path, int def, int min) {
+        int value = cfg.getInt(path, def);
+        if (value < min) {
+            warn(log, "Config value " + path + "=" + value + " is below " + min + ", using " + min);
+            return min;
+        }
+        return value;
+    }
+
+    private static double atLeast(ConfigurationSection cfg, Logger log, String path, double def, double min) {
+        double value = cfg.getDouble(path, def);
+        if (Double.isNaN(value) || value < min) {
+            warn(log, "Config value " + path + "=" + value + " is below " + min + ", using " + min);
+            return min;
+        }
+        return value;
+    }
+
+    private static Map<Material, Integer> parseItems(ConfigurationSection items, Logger log) {
+        Map<Material, Integer> result = new LinkedHashMap<>();
+        if (items == null) return result;
+        for (String materialName : items.getKeys(false)) {
+            Material material = Material.matchMaterial(materialName);
+            if (material == null) {
+                warn(log, "Invalid or unknown material in config: " + materialName);
+                continue;
+            }
+            result.merge(material, Math.max(1, items.getInt(materialName, 1)), Integer::sum);
+        }
+        return result;
+    }
+
+    private static List<PotionEffect> parseEffects(ConfigurationSection effects, Logger log) {
+        List<PotionEffect> result = new ArrayList<>();
+        if (effects == null) return result;
+        for (String effectName : effects.getKeys(false)) {
+            PotionEffectType type = PotionEffectType.getByName(effectName);
+            if (type == null) type = PotionEffectType.getByName(effectName.toUpperCase());
+            if (type == null) {
+                warn(log, "Unknown potion effect in config: " + effectName);
+                continue;
+            }
+
+            String value = effects.getString(effectName, "60");
+            int durationTicks;
+            if (value.equalsIgnoreCase("infinite")) {
+                durationTicks = INFINITE_EFFECT_TICKS;
+            } else {
+                try {
+                    durationTicks = Math.max(1, Integer.parseInt(value)) * 20;
+                } catch (NumberFormatException nfe) {
+                    warn(log, "Invalid effect duration for '" + effectName + "' in config: " + value + ", defaulting to 60s");
+                    durationTicks = 60 * 20;
+                }
+            }
+            result.add(new PotionEffect(type, durationTicks, 0, false));
+        }
+        return result;
+    }
+
+    private static void warn(Logger log, String message) {
+        if (log != null) log.warning(message);
+    }
+}
@@ -1,7 +1,6 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.ChatColor;
@@ -10,10 +9,12 @@ import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
@@ -23,25 +24,26 @@ import org.bukkit.inventory.ItemStack;
 import ham_sandwitch.plugin.survivalbattle.game.GameManager.Team;
 
 public class GameEventListener implements Listener {
-    private final GameManager gm;
+    private final ArenaManager arenas;
 
-    public GameEventListener(GameManager gm) {
-        this.gm = gm;
+    public GameEventListener(ArenaManager arenas) {
+        this.arenas = arenas;
     }
 
     @EventHandler
     public void onPlayerDeath(PlayerDeathEvent event) {
+        GameManager gm = arenas.getArenaFor(event.getEntity());
         try {
             Player victim = event.getEntity();
             if (victim == null) return;
             UUID victimId = victim.getUniqueId();
 
-            Set<UUID> alive = gm.getAlivePlayers();
-            if (!alive.contains(victimId)) return;
+            if (!gm.getAlivePlayers().contains(victimId)) return;
 
-            alive.remove(victimId);
+            gm.removeAlivePlayer(victimId);
 
             gm.getPlayerSetupManager().setupSpectator(victim);
+            gm.refreshAudiences(victim);
 
             Player killer = victim.getKiller();
             if (killer != null) {
@@ -49,7 +51,7 @@ public class GameEventListener implements Listener {
             }
             gm.getPlayerStats(victimId).incrementDeaths();
 
-            if (alive.size() <= 1) {
+            if (gm.getAlivePlayers().size() <= 1) {
                 Team winner = gm.determineWinnerPublic();
                 gm.endGame(winner);
             }
@@ -60,11 +62,13 @@ public class GameEventListener implements Listener {
 
     @EventHandler
     public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
+        GameManager gm = arenas.getPrimary();
         try {
             if (!(event.getEntity() instanceof Player)) return;
 
             Player victim = (Player) event.getEntity();
             if (victim == null) return;
+            gm = arenas.getArenaFor(victim);
 
             Player damager = null;
             if (event.getDamager() instanceof Player) {
@@ -114,47 +118,79 @@ public class GameEventListener implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
+        GameManager gm = arenas.getPrimary();
         try {
             Player p = event.getPlayer();
             if (p == null) return;
 
-            if (gm.getPhasePublic() != GameManager.Phase.IDLE) {
+            arenas.removeFromQueues(p.getUniqueId());
+            boolean rejoined = false;
+            for (GameManager arena : arenas.getArenas()) {
+                if (arena.getPhasePublic() == GameManager.Phase.IDLE) continue;
                 boolean wasParticipant = false;
                 for (GameManager.Team t : GameManager.Team.values()) {
-                    if (gm.getTeamMembers().getOrDefault(t, java.util.Collections.emptySet()).contains(p.getUniqueId())) {
+                    if (arena.getTeamMembers().getOrDefault(t, java.util.Collections.emptySet()).contains(p.getUniqueId())) {
                         wasParticipant = true;
                         break;
                     }
                 }
 
                 if (wasParticipant) {
+                    rejoined = true;
+                    gm = arena;
                     if (gm.getPhasePublic() == GameManager.Phase.COLLECTION) {
                         World battle = gm.getWorldManagerPublic().getBattleWorld();
                         if (battle != null) {
                             Location safeLoc = TeleportUtil.findSafeLocation(battle.getSpawnLocation());
-                            if (safeLoc != null) p.teleport(safeLoc);
+                            if (safeLoc != null) gm.getScheduler().teleport(p, safeLoc);
                             gm.getPlayerSetupManager().setupBattlePlayer(p);
-                            gm.getAlivePlayers().add(p.getUniqueId());
+                            gm.addAlivePlayer(p.getUniqueId());
+                            gm.getTabHpDisplay().updateLater(p);
                             p.sendMessage(ChatColor.GREEN + "✅ 収集フェーズに再参加しました。");
                         }
                     } else if (gm.getPhasePublic() == GameManager.Phase.PVP) {
-                        gm.getAlivePlayers().remove(p.getUniqueId());
+                        gm.removeAlivePlayer(p.getUniqueId());
                         gm.getPlayerSetupManager().setupLobbyPlayer(p);
-                        p.teleport(gm.getLobbyLocation());
+                        gm.getScheduler().teleport(p, gm.getLobbyLocation());
                         p.sendMessage(ChatColor.RED + "❌ PVPフェーズ中に退出したため、失格となりました。ロビーに戻ります。");
                     } else {
                         World battle = gm.getWorldManagerPublic().getBattleWorld();
                         if (battle != null) gm.getPlayerSetupManager().setupGameSpectator(p, battle);
                     }
+                    break;
                 }
             }
+
+            
+            if (!rejoined) {
+                GameManager owner = arenas.getPrimary();
+                for (GameManager arena : arenas.getArenas()) {
+                    if (arena.hasPendingRestore(p.getUniqueId())) {
+                        owner = arena;
+                        break;
+                    }
+                }
+                owner.recoverPendingRestore(p);
+            }
+
+            for (GameManager arena : arenas.getArenas()) {
+                arena.refreshAudiences(p);
+            }
         } catch (Exception e) {
             gm.getPlugin().getLogger().warning("Error in onPlayerJoin: " + e.getMessage());
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        for (GameManager arena : arenas.getArenas()) {
+            arena.refreshAudiences(event.getPlayer());
+        }
+    }
+
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
+        GameManager gm = arenas.getArenaFor(event.getPlayer());
         try {
             UUID uuid = event.getPlayer().getUniqueId();
 
@@ -162,7 +198,7 @@ public class GameEventListener implements Listener {
                 if (gm.getPhasePublic() == GameManager.Phase.COLLECTION) {
                     
                 } else if (gm.getPhasePublic() == GameManager.Phase.PVP) {
-                    gm.getAlivePlayers().remove(uuid);
+                    gm.removeAlivePlayer(uuid);
                     gm.getPlayerStats(uuid).incrementDeaths();
                     gm.getPlayerStats(uuid).incrementLosses();
 
@@ -173,10 +209,14 @@ public class GameEventListener implements Listener {
                 }
             }
 
-            gm.getIdleSpectators().remove(uuid);
+            arenas.removeFromQueues(uuid);
+            for (GameManager arena : arenas.getArenas()) {
+                arena.getIdleSpectators().remove(uuid);
+                arena.removeFromAudiences(event.getPlayer());
 
-            if (gm.getPhasePublic() == GameManager.Phase.IDLE) {
-                gm.removePlayerFromTeams(uuid);
+                if (arena.getPhasePublic() == GameManager.Phase.IDLE) {
+                    arena.removePlayerFromTeams(uuid);
+                }
             }
 
             gm.savePlayerStatsAsync();
@@ -187,17 +227,18 @@ public class GameEventListener implements Listener {
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
+        GameManager gm = event.getWhoClicked() instanceof Player ? arenas.getArenaFor((Player) event.getWhoClicked()) : arenas.getPrimary();
         try {
             Player p = (Player) event.getWhoClicked();
             if (p == null) return;
             if (event.getView() != null && gm.getTeamGuiTitle().equals(event.getView().getTitle())) {
                 event.setCancelled(true);
                 
-                gm.getPlugin().getServer().getScheduler().runTask(gm.getPlugin(), () -> gm.getPlugin().getServer().getScheduler());
-                gm.getPlugin().getServer().getScheduler().runTask(gm.getPlugin(), () -> gm.getPlugin().getServer());
+                gm.getScheduler().runForEntity(p, () -> gm.getPlugin().getServer());
+                gm.getScheduler().runForEntity(p, () -> gm.getPlugin().getServer());
                 
                 
-                gm.getPlugin().getServer().getScheduler().runTask(gm.getPlugin(), () -> gm.getPlugin().getServer());
+                gm.getScheduler().runForEntity(p, () -> gm.getPlugin().getServer());
                 
                 return;
             }
@@ -220,6 +261,7 @@ public class GameEventListener implements Listener {
 
     @EventHandler
     public void onPlayerInteractEntity(PlayerInteractEntityEvent event) {
+        GameManager gm = arenas.getArenaFor(event.getPlayer());
         try {
             Player p = event.getPlayer();
             if (p == null) return;
@@ -238,6 +280,7 @@ public class GameEventListener implements Listener {
 
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
+        GameManager gm = arenas.getArenaFor(event.getPlayer());
         try {
             Player p = event.getPlayer();
             if (p == null || !p.isOnline()) return;
@@ -270,7 +313,7 @@ public class GameEventListener implements Listener {
             }
             if (name.contains("チーム選択")) {
                 event.setCancelled(true);
-                gm.getPlugin().getServer().getScheduler().runTask(gm.getPlugin(), () -> gm.getPlugin().getServer());
+                gm.getScheduler().runForEntity(p, () -> gm.getPlugin().getServer());
                 
             }
         } catch (Exception e) {
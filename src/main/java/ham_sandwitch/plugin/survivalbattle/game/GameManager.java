@@ -2,13 +2,12 @@ package ham_sandwitch.plugin.survivalbattle.game;
 
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -16,7 +15,6 @@ import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.WorldBorder;
 import org.bukkit.boss.BarColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -26,51 +24,120 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import ham_sandwitch.plugin.survivalbattle.Main;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
 public class GameManager {
 
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorkQueue workQueue;
+    private final TeleportPipeline teleportPipeline;
+    private final SpawnPlanner spawnPlanner;
+    private final ChunkTickets pvpTickets;
+    private final PhaseMachine phaseMachine;
+    private final MatchRestoration matchRestoration;
+    private volatile GameSnapshot snapshot;
+    private TaskHandle snapshotTask;
+    private volatile CompletableFuture<Location> collectionSpawn;
+    private final TabHpDisplay tabHpDisplay;
+    private volatile MessageTemplate winMessage;
+    private volatile MessageTemplate drawMessage;
+    private final Map<UUID, CompletableFuture<Location>> preparedPvpSpawns = new ConcurrentHashMap<>();
     private final Location lobbyLocation;
     private final Location waitingLocation;
     private final WorldManager worldManager;
     private final PlayerSetupManager playerSetupManager;
     private final GameTimer gameTimer;
+    private final AudienceIndex audienceIndex;
 
-    private Phase currentPhase = Phase.IDLE;
+    private volatile Phase currentPhase = Phase.IDLE;
     private final TeamManager teamManager;
-    private final Set<UUID> idleSpectators = new LinkedHashSet<>();
-    private final Map<UUID, PlayerStats> playerStats = new HashMap<>();
+    private final Set<UUID> idleSpectators = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, PlayerStats> playerStats;
+    private final int arenaId;
+    private final Set<UUID> queuedPlayers = ConcurrentHashMap.newKeySet();
+    private boolean exclusiveQueue = false;
     private final DebugManager debugManager;
     private int fakePlayers = 0;
     private final PlayerStateManager playerStateManager;
+    private volatile boolean returningToLobby = false;
+    private volatile boolean preparingWorld = false;
 
     
     private static final String TEAM_GUI_TITLE = ChatColor.AQUA + "チームを選ぶ";
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacySection();
 
     public GameManager(JavaPlugin plugin, Location lobbyLocation, Location waitingLocation) {
+        this(plugin, lobbyLocation, waitingLocation, 0, null);
+    }
+
+    
+    public GameManager(JavaPlugin plugin, Location lobbyLocation, Location waitingLocation, int arenaId, GameManager primary) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.workQueue = WorkQueue.get(plugin);
+        this.teleportPipeline = new TeleportPipeline(plugin);
+        this.matchRestoration = new MatchRestoration(plugin, teleportPipeline);
         this.lobbyLocation = lobbyLocation;
         this.waitingLocation = waitingLocation;
-        this.worldManager = new WorldManager(plugin);
+        this.arenaId = arenaId;
+        this.worldManager = new WorldManager(plugin, arenaId, primary != null ? primary.worldManager : null);
         this.playerSetupManager = new PlayerSetupManager(plugin, lobbyLocation, waitingLocation);
         this.gameTimer = new GameTimer(plugin, this);
+        this.audienceIndex = new AudienceIndex(this);
+        this.spawnPlanner = new SpawnPlanner(plugin, worldManager);
+        this.pvpTickets = new ChunkTickets(plugin);
 
-        this.debugManager = new DebugManager(plugin);
+        this.debugManager = primary != null ? primary.debugManager : new DebugManager(plugin);
+        this.playerStats = primary != null ? primary.playerStats : new ConcurrentHashMap<>();
         this.teamManager = new TeamManager(plugin);
         this.playerStateManager = new PlayerStateManager(plugin);
+        this.tabHpDisplay = new TabHpDisplay(plugin, this);
+        this.phaseMachine = new PhaseMachine(plugin, Phase.COUNTDOWN, Phase.COLLECTION, Phase.PVP, Phase.END);
+        definePhases();
+        reloadTemplates();
+        this.snapshot = GameSnapshot.initial(arenaId);
+        this.snapshotTask = scheduler.runGlobalTimer(this::publishSnapshot, 1L, 1L);
+        registerMetrics();
 
         
-        loadPlayerStats();
+        if (primary == null) {
+            loadPlayerStats();
+        }
     }
 
     
 
     
+    public int getArenaId() { return arenaId; }
+    public Set<UUID> getQueuedPlayers() { return queuedPlayers; }
+    public GameTimer getGameTimer() { return gameTimer; }
+    public PluginScheduler getScheduler() { return scheduler; }
+    public TeleportPipeline getTeleportPipeline() { return teleportPipeline; }
+    public void setExclusiveQueue(boolean exclusiveQueue) { this.exclusiveQueue = exclusiveQueue; }
+
+    
+    public boolean isQueuedHere(Player p) {
+        if (p == null) return false;
+        return exclusiveQueue ? queuedPlayers.contains(p.getUniqueId()) : p.getWorld().equals(waitingLocation.getWorld());
+    }
+
+    
+    public boolean isParticipant(UUID uuid) {
+        return teamManager.getPlayerTeams().containsKey(uuid);
+    }
+
+    
     public PlayerSetupManager getPlayerSetupManager() { return playerSetupManager; }
     public Set<UUID> getAlivePlayers() { return teamManager.getAlivePlayers(); }
+    public void addAlivePlayer(UUID uuid) { teamManager.addAlive(uuid); }
+    public void removeAlivePlayer(UUID uuid) { teamManager.removeAlive(uuid); }
     public Set<UUID> getIdleSpectators() { return idleSpectators; }
     public Map<UUID, Team> getPlayerTeams() { return teamManager.getPlayerTeams(); }
-    public EnumMap<Team, Set<UUID>> getTeamMembers() { return teamManager.getTeamMembers(); }
+    public Map<Team, Set<UUID>> getTeamMembers() { return teamManager.getTeamMembers(); }
     public Location getWaitingLocation() { return waitingLocation; }
     public Location getLobbyLocation() { return lobbyLocation; }
     public WorldManager getWorldManagerPublic() { return worldManager; }
@@ -83,7 +150,7 @@ public class GameManager {
 
     
     public void savePlayerStatsAsync() {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::savePlayerStats);
+        scheduler.runAsync(this::savePlayerStats);
     }
 
     
@@ -94,7 +161,9 @@ public class GameManager {
     
     public void teleportToWaiting(Player p) {
         if (p == null || !p.isOnline()) return;
-        p.teleport(waitingLocation);
+        scheduler.teleport(p, waitingLocation);
+        queuedPlayers.add(p.getUniqueId());
+        refreshAudiences(p);
         
         try {
             if (!playerStateManager.hasSavedState(p.getUniqueId())) {
@@ -109,7 +178,9 @@ public class GameManager {
     
     public void teleportToLobby(Player p) {
         if (p == null || !p.isOnline()) return;
-        p.teleport(lobbyLocation);
+        scheduler.teleport(p, lobbyLocation);
+        queuedPlayers.remove(p.getUniqueId());
+        refreshAudiences(p);
         
         if (playerStateManager.hasSavedState(p.getUniqueId())) {
             try {
@@ -142,35 +213,44 @@ public class GameManager {
     }
 
     
-    public java.util.List<Player> getPlayersForBossBar() {
-        java.util.List<Player> result = new java.util.ArrayList<>();
+    public AudienceIndex getAudienceIndex() {
+        return audienceIndex;
+    }
+
+    
+    public boolean shouldSeeBossBar(Player p) {
         switch (currentPhase) {
             case COUNTDOWN:
                 World waitingWorld = waitingLocation.getWorld();
-                if (waitingWorld != null) {
-                    for (Player p : Bukkit.getOnlinePlayers()) {
-                        if (p.isOnline() && p.getWorld().equals(waitingWorld)) result.add(p);
-                    }
-                }
-                break;
+                return waitingWorld != null && p.getWorld().equals(waitingWorld) && isQueuedHere(p);
             case COLLECTION:
             case PVP:
-                Set<UUID> participants = teamManager.getAllParticipants();
-                for (Player p : Bukkit.getOnlinePlayers()) {
-                    if (participants.contains(p.getUniqueId())) result.add(p);
-                }
-                break;
+                return isParticipant(p.getUniqueId());
             default:
-                break;
+                return false;
         }
-        return result;
+    }
+
+    
+    public void refreshAudiences(Player p) {
+        gameTimer.getAudience().update(p);
+        audienceIndex.update(p);
+    }
+
+    
+    public void removeFromAudiences(Player p) {
+        gameTimer.getAudience().remove(p);
+        audienceIndex.remove(p);
+    }
+
+    private void resyncAudiences() {
+        gameTimer.getAudience().resync();
+        audienceIndex.resync();
     }
 
     
     public void sendGameMessage(String msg) {
-        for (Player p : getPlayersForBossBar()) {
-            p.sendMessage(msg);
-        }
+        gameTimer.getAudience().audience().sendMessage(LEGACY.deserialize(msg));
     }
 
     
@@ -183,11 +263,7 @@ public class GameManager {
             }
         }
         
-        for (Player op : Bukkit.getOnlinePlayers()) {
-            if (op.isOp()) {
-                op.sendMessage(msg);
-            }
-        }
+        audienceIndex.get(AudienceIndex.Group.OPS).sendMessage(LEGACY.deserialize(msg));
         
         plugin.getLogger().info(ChatColor.stripColor(msg));
     }
@@ -197,7 +273,9 @@ public class GameManager {
         if (p == null || !p.isOnline()) return;
 
         
-        p.teleport(waitingLocation);
+        scheduler.teleport(p, waitingLocation);
+        queuedPlayers.add(p.getUniqueId());
+        refreshAudiences(p);
 
         
         playerSetupManager.setupWaitingPlayer(p);
@@ -235,23 +313,33 @@ public class GameManager {
             sendAdminNotice(sender, ChatColor.RED + "❌ ゲームは既に進行中です。現在のフェーズ: " + currentPhase, true);
             return false;
         }
-
-        int minPlayers = plugin.getConfig().getInt("settings.min_players", 2);
-        int online = Bukkit.getOnlinePlayers().size();
-        if ((online + fakePlayers) < minPlayers && !debugManager.isDebugMode()) {
-            sendAdminNotice(sender, ChatColor.RED + "❌ プレイヤーが不足しています。(最低" + minPlayers + "人必要 / ダミー:" + fakePlayers + ")", true);
+        if (preparingWorld) {
+            sendAdminNotice(sender, ChatColor.RED + "❌ バトルワールドを準備中です。しばらくお待ちください。", true);
             return false;
         }
 
-        if (!worldManager.createBattleWorld()) {
-            sendAdminNotice(sender, ChatColor.RED + "❌ バトルワールドの作成に失敗しました。", true);
+        int minPlayers = GameConfig.get().minPlayers();
+        int online = exclusiveQueue ? queuedPlayers.size() : Bukkit.getOnlinePlayers().size();
+        if ((online + fakePlayers) < minPlayers && !debugManager.isDebugMode()) {
+            sendAdminNotice(sender, ChatColor.RED + "❌ プレイヤーが不足しています。(最低" + minPlayers + "人必要 / ダミー:" + fakePlayers + ")", true);
             return false;
         }
 
         
+        preparingWorld = true;
+        worldManager.createBattleWorld().whenComplete((created, ex) -> scheduler.runGlobal(() -> {
+            preparingWorld = false;
+            if (ex != null || !Boolean.TRUE.equals(created)) {
+                sendAdminNotice(sender, ChatColor.RED + "❌ バトルワールドの作成に失敗しました。", true);
+                return;
+            }
+            beginCountdown();
+        }));
+        return true;
+    }
+
+    private void beginCountdown() {
         setPhase(Phase.COUNTDOWN);
-        gameTimer.setCountdownTime(plugin.getConfig().getInt("settings.countdown", 10));
-        gameTimer.start();
 
         
         
@@ -262,13 +350,12 @@ public class GameManager {
             Main main = (Main) plugin;
             if (main.getDiscordNotifier() != null) {
                 try {
-                    main.getDiscordNotifier().sendStartNotification(org.bukkit.ChatColor.stripColor("[サバイバルバトロワ] ゲームが開始されます。"));
+                    main.getDiscordNotifier().sendStartNotification(snapshot.audiencePlayers() + fakePlayers, arenaId + 1);
                 } catch (Exception e) {
                     plugin.getLogger().warning("Discord start notify failed: " + e.getMessage());
                 }
             }
         } catch (Exception ignored) {}
-        return true;
     }
 
     
@@ -277,40 +364,23 @@ public class GameManager {
             Bukkit.broadcastMessage(ChatColor.RED + "❌ ゲームは進行していません。");
             return false;
         }
+        if (returningToLobby) return false;
+        returningToLobby = true;
 
         
         gameTimer.stop();
 
         
         World battleWorld = worldManager.getBattleWorld();
-        if (battleWorld != null) {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                if (p.isOnline() && p.getWorld().equals(battleWorld)) {
-                    p.teleport(lobbyLocation);
-                    playerSetupManager.setupLobbyPlayer(p);
-                }
-            }
-        }
-
-        
-        for (Team t : Team.values()) {
-            for (UUID id : teamManager.getTeamMembers().getOrDefault(t, java.util.Collections.emptySet())) {
-                Player op = Bukkit.getPlayer(id);
-                if (op != null && op.isOnline()) {
-                    op.setGameMode(GameMode.ADVENTURE);
-                }
-            }
-        }
-
-        
-        worldManager.deleteBattleWorld();
-
-        
-        setPhase(Phase.END);
+        matchRestoration.run("stop#" + (arenaId + 1), returningPlayers(battleWorld), lobbyLocation, battleWorld, this::restoreAfterMatch)
+                .thenRun(() -> scheduler.runGlobal(() -> {
             
+            setPhase(Phase.END);
             resetGameState();
+            returningToLobby = false;
 
-        sendGameMessage(ChatColor.RED + "🛑 ゲームが強制終了されました。");
+            sendGameMessage(ChatColor.RED + "🛑 ゲームが強制終了されました。");
+        }));
         return true;
     }
 
@@ -322,8 +392,14 @@ public class GameManager {
     
     private void resetGameState() {
         
+        tabHpDisplay.clear();
         teamManager.clearAll();
         idleSpectators.clear();
+        queuedPlayers.clear();
+        spawnPlanner.reset();
+        preparedPvpSpawns.clear();
+        pvpTickets.releaseAll();
+        collectionSpawn = null;
 
         
         setPhase(Phase.IDLE);
@@ -333,47 +409,73 @@ public class GameManager {
     public void setPhase(Phase newPhase) {
         if (currentPhase == newPhase) return;
 
-        plugin.getLogger().info("Phase changed from " + currentPhase + " to " + newPhase);
+        Phase previous = currentPhase;
         this.currentPhase = newPhase;
+        phaseMachine.transition(previous, newPhase);
+        resyncAudiences();
+        publishSnapshot();
+    }
+
+    
+    private void definePhases() {
+        phaseMachine.stage(Phase.COUNTDOWN)
+                .enter(this::enterCountdown)
+                .exit(worldManager::stopPregeneration);
+        phaseMachine.stage(Phase.COLLECTION)
+                .prepare("spawn search", () -> PhaseMachine.AS_SOON_AS_POSSIBLE, this::prepareCollectionSpawn)
+                .enter(this::enterCollection);
+        phaseMachine.stage(Phase.PVP)
+                .prepare("spawn plan", () -> GameConfig.get().spawnPlanLeadSeconds(), this::prepareSpawnPlan)
+                .prepare("spawn pinning", () -> GameConfig.get().pvpPrefetchSeconds(), this::preparePvpTransition)
+                .enter(this::enterPvp)
+                .exit(gameTimer::resetBorderShrinkInfo);
+        phaseMachine.stage(Phase.END)
+                .enter(this::enterEnd);
+        phaseMachine.stage(Phase.IDLE)
+                .enter(this::enterIdle);
+    }
+
+    public PhaseMachine getPhaseMachine() {
+        return phaseMachine;
+    }
+
+    private void enterCountdown() {
+        worldManager.startPregeneration();
+        gameTimer.setCountdownTime(GameConfig.get().countdownSeconds());
+        gameTimer.start();
+    }
+
+    private void enterCollection() {
+        teleportPlayersToBattle();
+        worldManager.setupCollectionPhaseBorder();
+        gameTimer.setGameTime(GameConfig.get().collectionSeconds());
+        gameTimer.updateBossBar(ChatColor.GREEN + "収集フェーズ", BarColor.GREEN, true);
+        sendGameMessage(ChatColor.GREEN + "🪓 資源収集フェーズ開始！");
+    }
 
+    private void enterEnd() {
+        gameTimer.stop();
+        worldManager.deleteBattleWorld();
+    }
+
+    private void enterIdle() {
+        gameTimer.updateBossBar("Survival Battle - IDLE", BarColor.BLUE, false);
+        gameTimer.resetBorderShrinkInfo();
         
-        switch (newPhase) {
-            case COUNTDOWN:
-                
-                break;
-            case COLLECTION:
-                
-                teleportPlayersToBattle();
-                
-                worldManager.setupCollectionPhaseBorder();
-                
-                gameTimer.setGameTime(plugin.getConfig().getInt("game.collection_time_seconds", 600));
-                gameTimer.updateBossBar(ChatColor.GREEN + "収集フェーズ", BarColor.GREEN, true);
-                break;
-            case PVP:
-                worldManager.setupPVPPhaseBorder();
-                gameTimer.setGameTime(plugin.getConfig().getInt("game.pvp_time_seconds", 300));
-                gameTimer.setBorderShrinkDuration(plugin.getConfig().getInt("game.border_shrink_duration_seconds", 180));
-                gameTimer.updateBossBar(ChatColor.RED + "PVPフェーズ", BarColor.RED, true);
-                break;
-            case END:
-                
-                gameTimer.stop();
-                worldManager.deleteBattleWorld();
-                
-                break;
-            case IDLE:
-                
-                gameTimer.updateBossBar("Survival Battle - IDLE", BarColor.BLUE, false);
-                gameTimer.resetBorderShrinkInfo();
-                
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    if (currentPhase == Phase.IDLE) {
-                        try { gameTimer.clearBossBar(); } catch (Exception ignored) {}
-                    }
-                }, 60L);
-                break;
-        }
+        scheduler.runGlobalLater(() -> {
+            if (currentPhase == Phase.IDLE) {
+                try { gameTimer.clearBossBar(); } catch (Exception ignored) {}
+            }
+        }, 60L);
+    }
+
+    
+    private CompletableFuture<?> prepareCollectionSpawn() {
+        World battleWorld = worldManager.getBattleWorld();
+        if (battleWorld == null) return null;
+        CompletableFuture<Location> search = TeleportUtil.findSafeLocationAsync(plugin, battleWorld.getSpawnLocation());
+        collectionSpawn = search;
+        return search;
     }
 
     
@@ -388,12 +490,12 @@ public class GameManager {
         
         List<Player> joinablePlayers = new ArrayList<>();
         for (Player p : Bukkit.getOnlinePlayers()) {
-            if (p.getWorld().equals(waitingLocation.getWorld())) {
+            if (p.getWorld().equals(waitingLocation.getWorld()) && isQueuedHere(p)) {
                 joinablePlayers.add(p);
             }
         }
 
-        int minPlayers = plugin.getConfig().getInt("settings.min_players", 2);
+        int minPlayers = GameConfig.get().minPlayers();
         if ((joinablePlayers.size() + fakePlayers) < minPlayers) {
             for (Player p : joinablePlayers) {
                 p.sendMessage(ChatColor.RED + "❌ 参加プレイヤーが不足しています。ゲームを中止します。(必要:" + minPlayers + " / ダミー:" + fakePlayers + ")");
@@ -404,29 +506,44 @@ public class GameManager {
 
         
         teamManager.assignTeams(joinablePlayers, fakePlayers);
+        resyncAudiences();
 
         
+        CompletableFuture<Location> spawnSearch = collectionSpawn;
+        collectionSpawn = null;
+        if (spawnSearch == null) spawnSearch = TeleportUtil.findSafeLocationAsync(plugin, battleWorld.getSpawnLocation());
+        TeleportPipeline.Batch batch = teleportPipeline.newBatch("battle#" + (arenaId + 1));
         for (Player p : joinablePlayers) {
             if (p.isOnline()) {
-                Location safeLoc = TeleportUtil.findSafeLocation(battleWorld.getSpawnLocation());
-                p.teleport(safeLoc);
-                
-                playerStateManager.savePreMatchState(p);
-                playerSetupManager.setupBattlePlayer(p);
                 teamManager.addAlive(p.getUniqueId());
+                batch.add(p, spawnSearch, playerStateManager::savePreMatchState, this::setupArrivedBattlePlayer, this::onBattleTeleportFailed);
+            }
+        }
+        batch.start();
+    }
 
-                Team team = teamManager.getTeam(p.getUniqueId());
-                p.sendMessage(ChatColor.AQUA + "バトルワールドに転送されました。");
-                if (team != null) {
-                    p.sendMessage(ChatColor.AQUA + "あなたは " + team.getDisplayName() + ChatColor.AQUA + " です。");
-                }
+    
+    private void onBattleTeleportFailed(Player p) {
+        teamManager.removeAlive(p.getUniqueId());
+        refreshAudiences(p);
+        if (p.isOnline()) {
+            p.sendMessage(ChatColor.RED + "❌ バトルワールドへの転送に失敗しました。観戦者として扱われます。");
+        }
+    }
 
-                
-                playerSetupManager.applyStartBuffs(p, 5);
-            }
+    
+    private void setupArrivedBattlePlayer(Player p) {
+        playerSetupManager.setupBattlePlayer(p);
+
+        Team team = teamManager.getTeam(p.getUniqueId());
+        p.sendMessage(ChatColor.AQUA + "バトルワールドに転送されました。");
+        if (team != null) {
+            p.sendMessage(ChatColor.AQUA + "あなたは " + team.getDisplayName() + ChatColor.AQUA + " です。");
         }
 
         
+        playerSetupManager.applyStartBuffs(p, 5);
+        tabHpDisplay.update(p);
     }
 
     
@@ -474,7 +591,7 @@ public class GameManager {
         String notice = ChatColor.YELLOW + "[運営] " + p.getName() + ChatColor.RESET + " が " + target.getDisplayName() + ChatColor.RESET + " に参加しました";
         sendAdminNotice(null, notice, false);
         
-        Bukkit.getScheduler().runTask(plugin, () -> openTeamSelectGui(p));
+        scheduler.runForEntity(p, () -> openTeamSelectGui(p));
     }
 
     private void setPlayerTeam(Player p, Team team) {
@@ -486,12 +603,15 @@ public class GameManager {
 
     
     public void endGame(Team winner) {
+        if (returningToLobby) return;
+        returningToLobby = true;
+
         
         gameTimer.stop();
 
         String message;
         if (winner != null) {
-            message = ChatColor.GOLD + "🏆 " + winner.getDisplayName() + ChatColor.GOLD + " の勝利！";
+            message = winMessage.render(winner.getDisplayName());
             
             for (UUID uuid : teamManager.getTeamMembers().get(winner)) {
                 getPlayerStats(uuid).incrementWins();
@@ -505,7 +625,7 @@ public class GameManager {
                 }
             }
         } else {
-            message = ChatColor.YELLOW + "引き分けです。";
+            message = drawMessage.render();
             
         }
 
@@ -518,7 +638,9 @@ public class GameManager {
             Main main = (Main) plugin;
             if (main.getDiscordNotifier() != null) {
                 try {
-                    main.getDiscordNotifier().sendEndNotification(org.bukkit.ChatColor.stripColor(message));
+                    main.getDiscordNotifier().sendEndNotification(
+                            winner != null ? ChatColor.stripColor(winner.getDisplayName()) : ChatColor.stripColor(drawMessage.render()),
+                            snapshot.participants(), arenaId + 1);
                 } catch (Exception e) {
                     plugin.getLogger().warning("Discord end notify failed: " + e.getMessage());
                 }
@@ -526,82 +648,74 @@ public class GameManager {
         } catch (Exception ignored) {}
 
         
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        scheduler.runGlobal(() -> {
             World battleWorld = worldManager.getBattleWorld();
+            matchRestoration.run("lobby#" + (arenaId + 1), returningPlayers(battleWorld), lobbyLocation, battleWorld, this::restoreAfterMatch)
+                    .thenRun(() -> scheduler.runGlobal(() -> {
+                
+                setPhase(Phase.END);
+                resetGameState();
+                returningToLobby = false;
 
-            
-            for (UUID uuid : teamManager.getAllParticipants()) {
-                Player p = Bukkit.getPlayer(uuid);
-                if (p != null && p.isOnline()) {
-                    try {
-                        p.teleport(lobbyLocation);
-                        if (playerStateManager.hasSavedState(p.getUniqueId())) {
-                            playerStateManager.restorePostMatchState(p);
-                            p.sendMessage(ChatColor.GREEN + "ロビーに戻りました（試合前の状態を復元しました）。");
-                        } else {
-                            playerSetupManager.setupLobbyPlayer(p);
-                            p.sendMessage(ChatColor.GREEN + "ロビーに戻りました。");
-                        }
-                        p.setGameMode(GameMode.ADVENTURE);
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("Failed to teleport/restore participant " + uuid + ": " + e.getMessage());
-                    }
-                }
-            }
+                
+                savePlayerStats();
+            }));
+        });
+    }
 
-            
-            if (battleWorld != null) {
-                for (Player p : Bukkit.getOnlinePlayers()) {
-                    if (p != null && p.isOnline() && p.getWorld().equals(battleWorld)) {
-                        try {
-                            p.teleport(lobbyLocation);
-                            if (playerStateManager.hasSavedState(p.getUniqueId())) {
-                                playerStateManager.restorePostMatchState(p);
-                                p.sendMessage(ChatColor.GREEN + "ロビーに戻りました（試合前の状態を復元しました）。");
-                            } else {
-                                playerSetupManager.setupLobbyPlayer(p);
-                                p.sendMessage(ChatColor.GREEN + "ロビーに戻りました。");
-                            }
-                            p.setGameMode(GameMode.ADVENTURE);
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("Failed to teleport player in battle world: " + e.getMessage());
-                        }
-                    }
-                }
-            }
+    
+    private Set<Player> returningPlayers(World battleWorld) {
+        Set<Player> returning = new java.util.LinkedHashSet<>();
+        for (UUID uuid : teamManager.getAllParticipants()) {
+            Player p = Bukkit.getPlayer(uuid);
+            if (p != null && p.isOnline()) returning.add(p);
+        }
+        if (battleWorld != null) {
+            returning.addAll(battleWorld.getPlayers());
+        }
+        return returning;
+    }
 
-            
-            for (Team t : Team.values()) {
-                for (UUID id : teamManager.getTeamMembers().getOrDefault(t, java.util.Collections.emptySet())) {
-                    Player op = Bukkit.getPlayer(id);
-                    if (op != null && op.isOnline()) {
-                        try { op.setGameMode(GameMode.ADVENTURE); } catch (Exception ignored) {}
-                    }
-                }
-            }
+    
+    public boolean hasPendingRestore(UUID uuid) {
+        return playerStateManager.hasSavedState(uuid);
+    }
 
-            
-            resetGameState();
+    
+    public void recoverPendingRestore(Player p) {
+        if (p == null || !playerStateManager.loadPersisted(p.getUniqueId())) return;
+        plugin.getLogger().info("Restoring pending post-match state for " + p.getName());
+        scheduler.teleport(p, lobbyLocation).thenRun(() -> workQueue.submit(WorkQueue.Priority.NORMAL, p, this::restoreAfterMatch));
+    }
 
-            
-            setPhase(Phase.END);
+    public MatchRestoration getMatchRestoration() {
+        return matchRestoration;
+    }
 
-            
-            savePlayerStats();
-        });
+    
+    private void restoreAfterMatch(Player p) {
+        try {
+            if (playerStateManager.hasSavedState(p.getUniqueId())) {
+                playerStateManager.restorePostMatchState(p);
+                p.sendMessage(ChatColor.GREEN + "ロビーに戻りました（試合前の状態を復元しました）。");
+            } else {
+                playerSetupManager.setupLobbyPlayer(p);
+                p.sendMessage(ChatColor.GREEN + "ロビーに戻りました。");
+            }
+            p.setGameMode(GameMode.ADVENTURE);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to teleport/restore player " + p.getUniqueId() + ": " + e.getMessage());
+        }
     }
 
     
     public void onTimeUp() {
         switch (currentPhase) {
             case COUNTDOWN:
-                setPhase(Phase.COLLECTION);
-                gameTimer.start(); 
+                startCollectionPhase();
                 break;
             case COLLECTION:
-                
-                setPhase(Phase.PVP);
-                gameTimer.start(); 
+                startPvpPhase();
                 break;
             case PVP:
                 
@@ -624,36 +738,53 @@ public class GameManager {
     
 
     
-    public String getGameStatus(CommandSender sender) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(ChatColor.BLUE).append("━━━━━ SurvivalBattle 状態 ━━━━━\n");
-        sb.append(ChatColor.AQUA).append("フェーズ: ").append(ChatColor.YELLOW).append(currentPhase).append("\n");
-        sb.append(ChatColor.AQUA).append("残り時間: ").append(ChatColor.YELLOW).append(gameTimer.getFormattedRemainingTime()).append("\n");
-        sb.append(ChatColor.AQUA).append("生存プレイヤー: ").append(ChatColor.YELLOW).append(teamManager.getAlivePlayers().size()).append(ChatColor.AQUA).append("人\n");
-
-        int redAlive = (int) teamManager.getTeamMembers().getOrDefault(Team.RED, new HashSet<>()).stream().filter(teamManager.getAlivePlayers()::contains).count();
-        int blueAlive = (int) teamManager.getTeamMembers().getOrDefault(Team.BLUE, new HashSet<>()).stream().filter(teamManager.getAlivePlayers()::contains).count();
-
-        if (redAlive > 0 || blueAlive > 0) {
-            sb.append(ChatColor.RED).append(Team.RED.getDisplayName()).append("生存: ").append(ChatColor.RED).append(redAlive).append("人\n");
-            sb.append(ChatColor.BLUE).append(Team.BLUE.getDisplayName()).append("生存: ").append(ChatColor.BLUE).append(blueAlive).append("人\n");
-        }
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
 
-        World battleWorld = worldManager.getBattleWorld();
-        if (battleWorld != null) {
-            WorldBorder wb = battleWorld.getWorldBorder();
-            sb.append(ChatColor.AQUA).append("ワールドボーダー: ").append(ChatColor.YELLOW).append((int) wb.getSize() / 2).append("ブロック\n");
-            if (gameTimer.isShrinkActive()) {
-                sb.append(ChatColor.AQUA).append("ボーダー縮小中: ").append(ChatColor.YELLOW).append(gameTimer.getFormattedShrinkTimeLeft()).append("\n");
-            }
-        } else {
-            sb.append(ChatColor.AQUA).append("バトルワールド: ").append(ChatColor.YELLOW).append("未作成\n");
+    
+    private void registerMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.get();
+        String arena = String.valueOf(arenaId + 1);
+        for (Phase p : Phase.values()) {
+            metrics.gauge("survivalbattle_arena_phase", "1 for the phase the arena is currently in",
+                    () -> snapshot.phase() == p ? 1 : 0, "arena", arena, "phase", p.name());
         }
+        metrics.gauge("survivalbattle_arena_phase_remaining_seconds", "Seconds left in the current phase", () -> snapshot.remainingSeconds(), "arena", arena);
+        metrics.gauge("survivalbattle_arena_alive_players", "Players still alive in the match", () -> snapshot.alivePlayers(), "arena", arena);
+        metrics.gauge("survivalbattle_arena_participants", "Players assigned to a team", () -> snapshot.participants(), "arena", arena);
+        metrics.gauge("survivalbattle_arena_border_size", "Current battle world border diameter", () -> snapshot.borderSize(), "arena", arena);
+        metrics.gauge("survivalbattle_arena_snapshot_age_seconds", "Age of the published game snapshot", () -> snapshot.ageMillis() / 1000.0, "arena", arena);
+    }
 
-        sb.append(ChatColor.AQUA).append("デバッグモード: ").append(debugManager.isDebugMode() ? ChatColor.GREEN + "ON" : ChatColor.RED + "OFF").append("\n");
+    
+    public void publishSnapshot() {
+        try {
+            EnumMap<Team, Integer> aliveByTeam = new EnumMap<>(Team.class);
+            for (Team t : Team.values()) aliveByTeam.put(t, teamManager.countAlive(t));
 
-        sb.append(ChatColor.BLUE).append("━━━━━━━━━━━━━━━━━━━━━━");
-        return sb.toString();
+            World battleWorld = worldManager.getBattleWorld();
+            WorldPool pool = worldManager.getWorldPool();
+            snapshot = new GameSnapshot(
+                    arenaId,
+                    currentPhase,
+                    gameTimer.getRemainingSeconds(),
+                    teamManager.getAlivePlayers().size(),
+                    teamManager.getPlayerTeams().size(),
+                    gameTimer.getAudience().size(),
+                    aliveByTeam,
+                    battleWorld != null,
+                    battleWorld != null ? battleWorld.getWorldBorder().getSize() : 0.0,
+                    gameTimer.isShrinkActive(),
+                    gameTimer.getShrinkSecondsLeft(),
+                    pool.isEnabled(),
+                    pool.getReadyCount(),
+                    pool.getTargetSize(),
+                    debugManager.isDebugMode(),
+                    System.nanoTime());
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to publish game snapshot: " + e.getMessage());
+        }
     }
 
     
@@ -713,80 +844,151 @@ public class GameManager {
 
     
     public Team removePlayerFromTeams(UUID uuid) {
-        return teamManager.removePlayer(uuid);
+        Team removed = teamManager.removePlayer(uuid);
+        Player p = Bukkit.getPlayer(uuid);
+        if (p != null) refreshAudiences(p);
+        return removed;
     }
 
     public void cleanup() {
+        if (snapshotTask != null) snapshotTask.cancel();
         if (currentPhase != Phase.IDLE) {
-            stopGame();
+            shutdownMatch();
         }
         savePlayerStats();
+        worldManager.shutdown();
+    }
+
+    
+    private void shutdownMatch() {
+        gameTimer.stop();
+        World battleWorld = worldManager.getBattleWorld();
+        for (Player p : returningPlayers(battleWorld)) {
+            try {
+                p.teleport(lobbyLocation);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to move " + p.getName() + " to the lobby during shutdown: " + e.getMessage());
+            }
+            restoreAfterMatch(p);
+        }
+        worldManager.deleteBattleWorld();
+
+        try { tabHpDisplay.clear(); } catch (Exception ignored) {}
+        teamManager.clearAll();
+        idleSpectators.clear();
+        queuedPlayers.clear();
+        spawnPlanner.reset();
+        preparedPvpSpawns.clear();
+        pvpTickets.releaseAll();
+        collectionSpawn = null;
+        returningToLobby = false;
+        currentPhase = Phase.IDLE;
+        gameTimer.clearBossBar();
+        plugin.getLogger().info("Arena #" + (arenaId + 1) + " match stopped for shutdown");
     }
 
     
 
     
-    public void updateTabHpDisplay() {
-        boolean enabled = plugin.getConfig().getBoolean("display.tab_hp_enabled", true);
-        String format = plugin.getConfig().getString("display.tab_hp_format", "{name} §7[{hp}❤]");
-        if (!enabled) return;
+    public TabHpDisplay getTabHpDisplay() {
+        return tabHpDisplay;
+    }
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            try {
-                double hp = Math.max(0, Math.min(20.0, p.getHealth()));
-                String hearts = String.format("%.0f", hp);
-                String name = p.getName();
-                String list = format.replace("{name}", name).replace("{hp}", hearts);
-                p.setPlayerListName(list);
-            } catch (Exception ignored) { }
-        }
+    
+    public void reloadTemplates() {
+        winMessage = MessageTemplate.compile(plugin.getConfig().getString("messages.win", "§6🏆 {team}§6 の勝利！"), "team");
+        drawMessage = MessageTemplate.compile(plugin.getConfig().getString("messages.draw", "§e引き分けです。"));
+        gameTimer.reloadTemplates();
+        tabHpDisplay.reload();
     }
 
     
     public void startCollectionPhase() {
         setPhase(Phase.COLLECTION);
-        int secs = plugin.getConfig().getInt("game.collection_time_seconds", 600);
-        gameTimer.setGameTime(secs);
-        sendGameMessage(ChatColor.GREEN + "🪓 資源収集フェーズ開始！");
+    }
+
+    
+    private CompletableFuture<?> prepareSpawnPlan() {
+        List<List<UUID>> groups = new ArrayList<>();
+        if (GameConfig.get().teamsEnabled()) {
+            for (Team t : Team.values()) {
+                List<UUID> members = new ArrayList<>();
+                for (UUID id : teamManager.getTeamMembers().getOrDefault(t, java.util.Collections.emptySet())) {
+                    if (teamManager.getAlivePlayers().contains(id)) members.add(id);
+                }
+                if (!members.isEmpty()) groups.add(members);
+            }
+        } else {
+            for (UUID id : teamManager.getAlivePlayers()) {
+                groups.add(java.util.Collections.singletonList(id));
+            }
+        }
+        return spawnPlanner.prepare(groups);
+    }
+
+    
+    private CompletableFuture<?> preparePvpTransition() {
+        if (worldManager.getBattleWorld() == null || !preparedPvpSpawns.isEmpty()) return null;
+        SpawnPlanner.SpawnPlan plan = spawnPlanner.take();
+        Map<Team, CompletableFuture<Location>> spawnMap = new EnumMap<>(Team.class);
+        for (UUID id : teamManager.getAlivePlayers()) {
+            Team t = teamManager.getTeam(id);
+            if (t == null) continue;
+            CompletableFuture<Location> dest = resolvePvpSpawn(id, t, plan, spawnMap);
+            preparedPvpSpawns.put(id, dest);
+            dest.thenAccept(pvpTickets::hold);
+        }
+        plugin.getLogger().info("PVP transition prepared for " + preparedPvpSpawns.size() + " players (planned: " + (plan != null) + ")");
+        return CompletableFuture.allOf(preparedPvpSpawns.values().toArray(new CompletableFuture[0]));
+    }
+
+    
+    private CompletableFuture<Location> resolvePvpSpawn(UUID id, Team t, SpawnPlanner.SpawnPlan plan, Map<Team, CompletableFuture<Location>> spawnMap) {
+        Location planned = plan != null ? plan.get(id) : null;
+        SpawnCandidateIndex index = worldManager.getSpawnIndex();
+        if (planned != null && index != null && index.isCandidate(planned)) {
+            return CompletableFuture.completedFuture(planned);
+        }
+        if (GameConfig.get().teamsEnabled()) {
+            return spawnMap.computeIfAbsent(t, k -> worldManager.findRandomLocationInPvpBorderAsync(30, 64));
+        }
+        return worldManager.findRandomLocationInPvpBorderAsync(30, 64);
     }
 
     
     public void startPvpPhase() {
         setPhase(Phase.PVP);
-        int pvpSecs = plugin.getConfig().getInt("game.pvp_time_seconds", 900);
-        int shrinkSecs = plugin.getConfig().getInt("game.border_shrink_duration_seconds", 300);
-        double finalSize = plugin.getConfig().getDouble("game.border_final_size", 5.0);
+    }
+
+    private void enterPvp() {
+        GameConfig config = GameConfig.get();
+        int pvpSecs = config.pvpSeconds();
+        int shrinkSecs = config.borderShrinkSeconds();
+        double finalSize = config.borderFinalSize();
+        worldManager.setupPVPPhaseBorder();
         gameTimer.setGameTime(pvpSecs);
         gameTimer.setBorderShrinkDuration(shrinkSecs);
+        gameTimer.updateBossBar(ChatColor.RED + "PVPフェーズ", BarColor.RED, true);
 
         
         World battle = worldManager.getBattleWorld();
         if (battle != null) {
             worldManager.startBorderShrink(finalSize, shrinkSecs);
             
-            Map<Team, Location> spawnMap = new EnumMap<>(Team.class);
-            boolean teamEnabled = plugin.getConfig().getBoolean("teams.enabled", true);
-            int protect = plugin.getConfig().getInt("pvp.random_spawn.spawn_protection_seconds", 3);
-            for (Team t : Team.values()) {
-                if (!teamEnabled) continue; 
-                spawnMap.put(t, worldManager.findRandomLocationInBorder(30, 64));
-            }
+            Map<Team, CompletableFuture<Location>> spawnMap = new EnumMap<>(Team.class);
+            int protect = config.spawnProtectionSeconds();
+            SpawnPlanner.SpawnPlan plan = preparedPvpSpawns.isEmpty() ? spawnPlanner.take() : null;
+            TeleportPipeline.Batch batch = teleportPipeline.newBatch("pvp#" + (arenaId + 1));
             for (Player op : Bukkit.getOnlinePlayers()) {
                 UUID id = op.getUniqueId();
                 Team t = teamManager.getTeam(id);
                 if (t == null) continue; 
-                Location dest;
-                if (teamEnabled) {
-                    dest = spawnMap.get(t);
-                    if (dest == null) dest = worldManager.findRandomLocationInBorder(30, 64);
-                } else {
-                    dest = worldManager.findRandomLocationInBorder(30, 64);
-                }
-                if (dest != null) {
-                    op.teleport(dest);
-                    playerSetupManager.applySpawnProtection(op, protect);
-                }
+                CompletableFuture<Location> dest = preparedPvpSpawns.remove(id);
+                if (dest == null) dest = resolvePvpSpawn(id, t, plan, spawnMap);
+                batch.add(op, dest, null, p -> playerSetupManager.applySpawnProtection(p, protect));
             }
+            preparedPvpSpawns.clear();
+            batch.start().thenRun(pvpTickets::releaseAll);
         }
 
         sendGameMessage(ChatColor.RED + "⚔️ PVPフェーズ開始！");
@@ -817,32 +1019,36 @@ public class GameManager {
 
     
     public String getGameStats() {
+        GameSnapshot snap = snapshot;
         StringBuilder sb = new StringBuilder();
         sb.append(ChatColor.BLUE).append("━━━━━ SurvivalBattle 状態 ━━━━━\n");
-        sb.append(ChatColor.AQUA).append("フェーズ: ").append(ChatColor.YELLOW).append(currentPhase).append("\n");
-        sb.append(ChatColor.AQUA).append("残り時間: ").append(ChatColor.YELLOW).append(gameTimer.getFormattedRemainingTime()).append("\n");
-        sb.append(ChatColor.AQUA).append("生存プレイヤー: ").append(ChatColor.YELLOW).append(teamManager.getAlivePlayers().size()).append(ChatColor.AQUA).append("人\n");
+        sb.append(ChatColor.AQUA).append("アリーナ: ").append(ChatColor.YELLOW).append("#").append(snap.arenaId() + 1).append("\n");
+        sb.append(ChatColor.AQUA).append("フェーズ: ").append(ChatColor.YELLOW).append(snap.phase()).append("\n");
+        sb.append(ChatColor.AQUA).append("残り時間: ").append(ChatColor.YELLOW).append(snap.formattedRemaining()).append("\n");
+        sb.append(ChatColor.AQUA).append("生存プレイヤー: ").append(ChatColor.YELLOW).append(snap.alivePlayers()).append(ChatColor.AQUA).append("人\n");
 
-        int redAlive = (int) teamManager.getTeamMembers().getOrDefault(Team.RED, new HashSet<>()).stream().filter(teamManager.getAlivePlayers()::contains).count();
-        int blueAlive = (int) teamManager.getTeamMembers().getOrDefault(Team.BLUE, new HashSet<>()).stream().filter(teamManager.getAlivePlayers()::contains).count();
+        int redAlive = snap.aliveOn(Team.RED);
+        int blueAlive = snap.aliveOn(Team.BLUE);
         if (redAlive > 0 || blueAlive > 0) {
             sb.append(ChatColor.RED).append(Team.RED.getDisplayName()).append("生存: ").append(ChatColor.RED).append(redAlive).append("人\n");
             sb.append(ChatColor.BLUE).append(Team.BLUE.getDisplayName()).append("生存: ").append(ChatColor.BLUE).append(blueAlive).append("人\n");
         }
 
-        World battleWorld = worldManager.getBattleWorld();
-        if (battleWorld != null) {
-            WorldBorder wb = battleWorld.getWorldBorder();
-            sb.append(ChatColor.AQUA).append("ワールドボーダー: ").append(ChatColor.YELLOW).append((int) wb.getSize() / 2).append("ブロック\n");
-            if (gameTimer.isShrinkActive()) {
-                sb.append(ChatColor.AQUA).append("ボーダー縮小中: ").append(ChatColor.YELLOW).append(gameTimer.getFormattedShrinkTimeLeft()).append("\n");
+        if (snap.battleWorldLoaded()) {
+            sb.append(ChatColor.AQUA).append("ワールドボーダー: ").append(ChatColor.YELLOW).append((int) snap.borderSize() / 2).append("ブロック\n");
+            if (snap.shrinkActive()) {
+                sb.append(ChatColor.AQUA).append("ボーダー縮小中: ").append(ChatColor.YELLOW).append(snap.formattedShrinkLeft()).append("\n");
             }
         } else {
             sb.append(ChatColor.AQUA).append("バトルワールド: ").append(ChatColor.YELLOW).append("未作成\n");
         }
 
-        sb.append(ChatColor.AQUA).append("デバッグモード: ").append(debugManager.isDebugMode() ? ChatColor.GREEN + "ON" : ChatColor.RED + "OFF").append("\n");
+        if (snap.poolEnabled()) {
+            sb.append(ChatColor.AQUA).append("ワールドプール: ").append(ChatColor.YELLOW).append(snap.poolReady()).append("/").append(snap.poolTarget()).append("\n");
+        }
+
+        sb.append(ChatColor.AQUA).append("デバッグモード: ").append(snap.debugMode() ? ChatColor.GREEN + "ON" : ChatColor.RED + "OFF").append("\n");
         sb.append(ChatColor.BLUE).append("━━━━━━━━━━━━━━━━━━━━━━");
         return sb.toString();
     }
-}
+}
@@ -0,0 +1,61 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import ham_sandwitch.plugin.survivalbattle.game.GameManager.Phase;
+import ham_sandwitch.plugin.survivalbattle.game.GameManager.Team;
+
+public record GameSnapshot(
+        int arenaId,
+        Phase phase,
+        int remainingSeconds,
+        int alivePlayers,
+        int participants,
+        int audiencePlayers,
+        Map<Team, Integer> aliveByTeam,
+        boolean battleWorldLoaded,
+        double borderSize,
+        boolean shrinkActive,
+        int shrinkSecondsLeft,
+        boolean poolEnabled,
+        int poolReady,
+        int poolTarget,
+        boolean debugMode,
+        long publishedNanos) {
+
+    public GameSnapshot {
+        EnumMap<Team, Integer> copy = new EnumMap<>(Team.class);
+        copy.putAll(aliveByTeam);
+        aliveByTeam = Collections.unmodifiableMap(copy);
+    }
+
+
+    public static GameSnapshot initial(int arenaId) {
+        return new GameSnapshot(arenaId, Phase.IDLE, 0, 0, 0, 0, Map.of(), false, 0.0, false, 0,
+                false, 0, 0, false, System.nanoTime());
+    }
+
+
+    public int aliveOn(Team team) {
+        Integer count = aliveByTeam.get(team);
+        return count != null ? count : 0;
+    }
+
+    public String formattedRemaining() {
+        return format(remainingSeconds);
+    }
+
+    public String formattedShrinkLeft() {
+        return format(shrinkSecondsLeft);
+    }
+
+    public long ageMillis() {
+        return (System.nanoTime() - publishedNanos) / 1_000_000L;
+    }
+
+    private static String format(int seconds) {
+        return seconds / 60 + ":" + String.format("%02d", seconds % 60);
+    }
+}
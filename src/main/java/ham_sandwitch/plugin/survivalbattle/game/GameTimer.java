@@ -1,33 +1,78 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.boss.BarColor;
 import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+import net.kyori.adventure.sound.Sound;
 
 public class GameTimer {
     
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorkQueue workQueue;
+    private final AtomicReference<BarFrame> pendingFrame = new AtomicReference<>();
     private final GameManager gameManager;
     private final BossBar bossBar;
-    private final java.util.Set<java.util.UUID> bossBarPlayerIds = new java.util.HashSet<>();
+    private final BossBarAudience audience;
+    private final Histogram tickCost = MetricsRegistry.get().histogram("survivalbattle_game_timer_tick_seconds", "Cost of one game timer second");
+    private final Histogram bossBarCost = MetricsRegistry.get().histogram("survivalbattle_bossbar_update_seconds", "Cost of applying a boss bar frame");
+    private volatile MessageTemplate pregenTitle;
+    private volatile MessageTemplate shrinkTitle;
+    private volatile MessageTemplate collectionTitle;
+    private volatile MessageTemplate pvpTitle;
+    private volatile MessageTemplate countdownMessage;
+    private volatile MessageTemplate preparingMessage;
+    private volatile MessageTemplate remainingMessage;
     
-    private BukkitTask timerTask;
-    private int timeLeft;
-    private int countdownTimeLeft;
+    private TaskHandle timerTask;
+    private volatile boolean regionBound = false;
+    private final PhaseClock countdownClock = new PhaseClock();
+    private final PhaseClock phaseClock = new PhaseClock();
+    private final PhaseClock shrinkClock = new PhaseClock();
+    private long pregenWaitStartNanos = 0L;
+    private volatile String lastDriftSummary = "none";
+    private long avgTickNanos = 0L;
+    private long lastTickNanos = 0L;
+    private long maxTickNanos = 0L;
 
     
-    private int borderShrinkTimeLeft = 0;
-    private int borderShrinkDuration = 0;
     
     public GameTimer(JavaPlugin plugin, GameManager gameManager) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.workQueue = WorkQueue.get(plugin);
         this.gameManager = gameManager;
         this.bossBar = Bukkit.createBossBar("Survival Battle - IDLE", BarColor.BLUE, BarStyle.SEGMENTED_10);
         this.bossBar.setVisible(false);
+        this.audience = new BossBarAudience(gameManager, bossBar);
+        reloadTemplates();
+    }
+
+    
+    public void reloadTemplates() {
+        pregenTitle = template("display.bossbar.pregen", "§bワールド生成中 §e{percent}%", "percent");
+        shrinkTitle = template("display.bossbar.shrink", "§cワールドボーダー縮小まで §e{minutes}:{seconds:2}", "minutes", "seconds");
+        collectionTitle = template("display.bossbar.collection", "§a資源収集 §f- §e{minutes}:{seconds:2}", "minutes", "seconds");
+        pvpTitle = template("display.bossbar.pvp", "§cPVP §f- §e{minutes}:{seconds:2}", "minutes", "seconds");
+        countdownMessage = template("messages.countdown", "[サバイバルバトロワ] ゲーム開始まで {seconds}秒", "seconds");
+        preparingMessage = template("messages.preparing_world", "[サバイバルバトロワ] ワールド準備中... {percent}%", "percent");
+        remainingMessage = template("messages.remaining_minutes", "[サバイバルバトロワ] 残り時間: {minutes}分", "minutes");
+    }
+
+    private MessageTemplate template(String path, String def, String... keys) {
+        return MessageTemplate.compile(plugin.getConfig().getString(path, def), keys);
     }
     
     public static class GameTime {
@@ -49,10 +94,12 @@ public class GameTimer {
         }
         
         bossBar.setVisible(true);
-        updateBossBarPlayers();
-        
+        audience.resync();
         
-        timerTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+        World battleWorld = gameManager.getWorldManager().getBattleWorld();
+        regionBound = battleWorld != null && PluginScheduler.isFolia();
+        Runnable tick = () -> {
+            long tickStart = System.nanoTime();
             GameManager.Phase phase = gameManager.getCurrentPhase();
             
             if (phase == GameManager.Phase.COUNTDOWN) {
@@ -60,55 +107,52 @@ public class GameTimer {
             } else if (phase == GameManager.Phase.COLLECTION || phase == GameManager.Phase.PVP) {
                 handleGameTime();
             }
-            
-            
-            updateBossBarPlayers();
 
-            
-            try {
-                gameManager.updateTabHpDisplay();
-            } catch (Exception ignored) {}
-        }, 0L, 20L);  
+            recordTickCost(System.nanoTime() - tickStart);
+        };
+        timerTask = battleWorld != null
+                ? scheduler.runAtTimer(battleWorld, 0, 0, tick, 0L, 20L)
+                : scheduler.runGlobalTimer(tick, 0L, 20L);
     }
+
     
+    private void onGlobal(Runnable task) {
+        if (regionBound) {
+            scheduler.runGlobal(task);
+        } else {
+            task.run();
+        }
+    }
     
-    private void updateBossBarPlayers() {
-        try {
-            java.util.Set<java.util.UUID> desired = new java.util.HashSet<>();
-            for (Player p : gameManager.getPlayersForBossBar()) {
-                if (p == null || !p.isOnline()) continue;
-                desired.add(p.getUniqueId());
-            }
+    
+    public BossBarAudience getAudience() {
+        return audience;
+    }
+    
+    
+    private void recordTickCost(long nanos) {
+        tickCost.observeNanos(nanos);
+        lastTickNanos = nanos;
+        maxTickNanos = Math.max(maxTickNanos, nanos);
+        avgTickNanos = avgTickNanos == 0L ? nanos : (avgTickNanos * 7 + nanos) / 8;
+    }
 
-            
-            java.util.Iterator<java.util.UUID> it = bossBarPlayerIds.iterator();
-            while (it.hasNext()) {
-                java.util.UUID id = it.next();
-                if (!desired.contains(id)) {
-                    Player pl = Bukkit.getPlayer(id);
-                    if (pl != null) {
-                        try { bossBar.removePlayer(pl); } catch (Exception ignored) {}
-                    }
-                    it.remove();
-                }
-            }
+    public long getAverageTickMicros() {
+        return avgTickNanos / 1_000L;
+    }
 
-            
-            for (java.util.UUID id : desired) {
-                if (!bossBarPlayerIds.contains(id)) {
-                    Player pl = Bukkit.getPlayer(id);
-                    if (pl != null && pl.isOnline()) {
-                        try { bossBar.addPlayer(pl); bossBarPlayerIds.add(id); } catch (Exception ignored) {}
-                    }
-                }
-            }
-        } catch (Exception e) {
-            
-            try {
-                bossBar.removeAll();
-                bossBarPlayerIds.clear();
-            } catch (Exception ignored) {}
-        }
+    public long getLastTickMicros() {
+        return lastTickNanos / 1_000L;
+    }
+
+    public long getMaxTickMicros() {
+        return maxTickNanos / 1_000L;
+    }
+
+    public void resetTickCost() {
+        avgTickNanos = 0L;
+        lastTickNanos = 0L;
+        maxTickNanos = 0L;
     }
     
     
@@ -121,17 +165,36 @@ public class GameTimer {
     
     
     private void handleCountdown() {
-        bossBar.setVisible(false);
+        ChunkPregenerator pregen = gameManager.getWorldManager().getPregenerator();
+        boolean pregenActive = pregen != null && !pregen.isDone();
+        if (pregenActive) {
+            showFrame(pregenTitle.render(pregen.getPercent()), pregen.getProgress(), BarColor.BLUE);
+            bossBar.setVisible(true);
+        } else {
+            bossBar.setVisible(false);
+        }
 
-        countdownTimeLeft--;
+        int countdownTimeLeft = countdownClock.tick();
+        onGlobal(() -> gameManager.getPhaseMachine().onRemaining(GameManager.Phase.COUNTDOWN, countdownTimeLeft));
+
+        if (countdownTimeLeft <= 0 && shouldWaitForPregeneration(pregen)) {
+            countdownClock.setRemaining(1);
+            if (pregenWaitStartNanos == 0L) pregenWaitStartNanos = System.nanoTime();
+            gameManager.sendGameMessage(preparingMessage.render(pregen.getPercent()));
+            return;
+        }
 
         if (countdownTimeLeft <= 0) {
-            gameManager.startCollectionPhase();
-            gameManager.sendGameMessage("[サバイバルバトロワ] ゲーム開始！");
-            playSound(org.bukkit.Sound.ENTITY_ENDER_DRAGON_GROWL);
+            onGlobal(() -> {
+                if (gameManager.getCurrentPhase() != GameManager.Phase.COUNTDOWN) return;
+                reportDrift("COUNTDOWN", countdownClock);
+                gameManager.startCollectionPhase();
+                gameManager.sendGameMessage("[サバイバルバトロワ] ゲーム開始！");
+                playSound(org.bukkit.Sound.ENTITY_ENDER_DRAGON_GROWL);
+            });
         } else {
             
-            gameManager.sendGameMessage("[サバイバルバトロワ] ゲーム開始まで " + countdownTimeLeft + "秒");
+            gameManager.sendGameMessage(countdownMessage.render(countdownTimeLeft));
             if (countdownTimeLeft <= 5) {
                 playSound(org.bukkit.Sound.BLOCK_NOTE_BLOCK_HAT);
             }
@@ -139,98 +202,135 @@ public class GameTimer {
     }
     
     
+    private boolean shouldWaitForPregeneration(ChunkPregenerator pregen) {
+        if (pregen == null || pregen.isDone()) return false;
+        int required = GameConfig.get().pregenWaitPercent();
+        if (required <= 0) return false;
+        int maxWait = GameConfig.get().pregenMaxWaitSeconds();
+        if (pregenWaitStartNanos != 0L && System.nanoTime() - pregenWaitStartNanos >= maxWait * 1_000_000_000L) return false;
+        return pregen.getPercent() < Math.min(100, required);
+    }
+    
+    
     private void handleGameTime() {
+        GameManager.Phase phase = gameManager.getCurrentPhase();
+        int previous = phaseClock.getLastSecond();
+        int timeLeft = phaseClock.tick();
+
         
-        if (borderShrinkTimeLeft > 0 && gameManager.getCurrentPhase() == GameManager.Phase.PVP) {
-            borderShrinkTimeLeft--;
-            double progress = Math.max(0.0, Math.min(1.0, (double) borderShrinkTimeLeft / Math.max(1, borderShrinkDuration)));
-            bossBar.setProgress(progress);
-            
-            int minutes = borderShrinkTimeLeft / 60;
-            int seconds = borderShrinkTimeLeft % 60;
-            bossBar.setTitle("§cワールドボーダー縮小まで §e" + minutes + ":" + String.format("%02d", seconds));
-            bossBar.setColor(BarColor.RED);
+        if (shrinkClock.isRunning() && phase == GameManager.Phase.PVP) {
+            int shrinkLeft = shrinkClock.tick();
+            showFrame(shrinkTitle.render(shrinkLeft / 60, shrinkLeft % 60), shrinkClock.progress(), BarColor.RED);
 
-            
-            timeLeft--;
-            
-            if (borderShrinkTimeLeft <= 0) {
-                
+            if (shrinkLeft <= 0) {
+                shrinkClock.clear();
                 playSound(org.bukkit.Sound.ENTITY_WITHER_SPAWN);
-                
             }
-            
-            return;
+            if (timeLeft > 0) return;
         }
 
         
-        timeLeft--;
-        
-        GameManager.Phase phase = gameManager.getCurrentPhase();
-        int initialTime = phase == GameManager.Phase.COLLECTION 
-            ? plugin.getConfig().getInt("game.collection_time_seconds", 600)
-            : plugin.getConfig().getInt("game.pvp_time_seconds", 900);
-        
-        double progress = Math.max(0.0, Math.min(1.0, (double) timeLeft / initialTime));
-        bossBar.setProgress(progress);
-        
-        GameTime gameTime = new GameTime(timeLeft);
-        String phaseColor = phase == GameManager.Phase.COLLECTION ? "§a" : "§c";
-        String phaseName = phase == GameManager.Phase.COLLECTION ? "資源収集" : "PVP";
-        bossBar.setTitle(phaseColor + phaseName + " §f- §e" + gameTime.minutes + ":" + String.format("%02d", gameTime.seconds));
-        bossBar.setColor(phase == GameManager.Phase.COLLECTION ? BarColor.GREEN : BarColor.RED);
+        MessageTemplate title = phase == GameManager.Phase.COLLECTION ? collectionTitle : pvpTitle;
+        showFrame(title.render(timeLeft / 60, timeLeft % 60), phaseClock.progress(), phase == GameManager.Phase.COLLECTION ? BarColor.GREEN : BarColor.RED);
         
         if (timeLeft <= 0) {
-            if (phase == GameManager.Phase.COLLECTION) {
-                gameManager.startPvpPhase();
-                gameManager.sendGameMessage("[サバイバルバトロワ] PVPフェーズ開始！");
-                playSound(org.bukkit.Sound.ENTITY_WITHER_SPAWN);
-            } else {
-                gameManager.sendGameMessage("[サバイバルバトロワ] 時間切れです。ゲームを終了します。");
-                gameManager.finalizeGameAndTeleportAll(null);
-            }
+            onGlobal(() -> {
+                if (gameManager.getCurrentPhase() != phase) return;
+                reportDrift(phase.name(), phaseClock);
+                if (phase == GameManager.Phase.COLLECTION) {
+                    gameManager.startPvpPhase();
+                    gameManager.sendGameMessage("[サバイバルバトロワ] PVPフェーズ開始！");
+                    playSound(org.bukkit.Sound.ENTITY_WITHER_SPAWN);
+                } else {
+                    gameManager.sendGameMessage("[サバイバルバトロワ] 時間切れです。ゲームを終了します。");
+                    gameManager.finalizeGameAndTeleportAll(null);
+                }
+            });
             return;
         }
+
+        
+        for (int second = previous - 1; second >= timeLeft; second--) {
+            handleSecondCues(phase, second, second == timeLeft);
+        }
+    }
+
+    
+    private void handleSecondCues(GameManager.Phase phase, int second, boolean latest) {
+        onGlobal(() -> gameManager.getPhaseMachine().onRemaining(phase, second));
         
-        if (phase == GameManager.Phase.COLLECTION && timeLeft == 60) {
+        if (phase == GameManager.Phase.COLLECTION && second == 60) {
             gameManager.sendGameMessage("[サバイバルバトロワ] フェーズ終了まで残り1分");
-            playSound(org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING);
+            if (latest) playSound(org.bukkit.Sound.BLOCK_NOTE_BLOCK_PLING);
         }
         
-        if (timeLeft % 300 == 0 && timeLeft > 0) {
-            int remainingMinutes = timeLeft / 60;
-            gameManager.sendGameMessage("[サバイバルバトロワ] 残り時間: " + remainingMinutes + "分");
+        if (second % 300 == 0 && second > 0) {
+            gameManager.sendGameMessage(remainingMessage.render(second / 60));
         }
         
-        if (phase == GameManager.Phase.PVP && timeLeft == 60) {
+        if (phase == GameManager.Phase.PVP && second == 60) {
             gameManager.sendGameMessage("[サバイバルバトロワ] 残り時間1分！");
         }
     }
+
+    
+    private void reportDrift(String name, PhaseClock clock) {
+        lastDriftSummary = clock.driftSummary(name);
+        plugin.getLogger().info("Phase clock " + lastDriftSummary);
+    }
+
+    public String getLastDriftSummary() {
+        return lastDriftSummary;
+    }
     
     
+    private void showFrame(String title, double progress, BarColor color) {
+        if (pendingFrame.getAndSet(new BarFrame(title, progress, color)) == null) {
+            workQueue.submit(WorkQueue.Priority.COSMETIC, this::applyFrame);
+        }
+    }
+
+    private void applyFrame() {
+        BarFrame frame = pendingFrame.getAndSet(null);
+        if (frame == null) return;
+        long start = System.nanoTime();
+        bossBar.setTitle(frame.title());
+        bossBar.setProgress(frame.progress());
+        bossBar.setColor(frame.color());
+        bossBarCost.observeSince(start);
+    }
+
+    private record BarFrame(String title, double progress, BarColor color) { }
+
+    
     private void playSound(org.bukkit.Sound sound) {
-        for (Player p : gameManager.getPlayersForBossBar()) {
-            p.playSound(p.getLocation(), sound, 1.0f, 1.0f);
+        Sound cue = Sound.sound(sound.getKey(), Sound.Source.MASTER, 1.0f, 1.0f);
+        if (regionBound) {
+            for (Player p : audience.players()) {
+                scheduler.runForEntity(p, () -> p.playSound(cue, Sound.Emitter.self()));
+            }
+            return;
         }
+        workQueue.submit(WorkQueue.Priority.COSMETIC, () -> audience.audience().playSound(cue, Sound.Emitter.self()));
     }
     
     public void setCountdownTime(int seconds) {
-        this.countdownTimeLeft = seconds;
+        countdownClock.start(seconds);
+        pregenWaitStartNanos = 0L;
     }
     
     public void setGameTime(int seconds) {
-        this.timeLeft = seconds;
+        phaseClock.start(seconds);
     }
 
     public void setBorderShrinkDuration(int seconds) {
-        this.borderShrinkDuration = Math.max(0, seconds);
-        this.borderShrinkTimeLeft = this.borderShrinkDuration;
+        if (seconds > 0) shrinkClock.start(seconds);
+        else shrinkClock.clear();
     }
 
     
     public void resetBorderShrinkInfo() {
-        this.borderShrinkDuration = 0;
-        this.borderShrinkTimeLeft = 0;
+        shrinkClock.clear();
     }
     
     public BossBar getBossBar() {
@@ -239,8 +339,9 @@ public class GameTimer {
 
     
     public void clearBossBar() {
+        pendingFrame.set(null);
         try {
-            bossBar.removeAll();
+            audience.clear();
             bossBar.setVisible(false);
         } catch (Exception ignored) {}
     }
@@ -252,13 +353,17 @@ public class GameTimer {
     }
     
     public GameTime getRemainingTime() {
+        return new GameTime(getRemainingSeconds());
+    }
+
+    public int getRemainingSeconds() {
         GameManager.Phase phase = gameManager.getCurrentPhase();
         if (phase == GameManager.Phase.COUNTDOWN) {
-            return new GameTime(countdownTimeLeft);
+            return countdownClock.remainingSeconds();
         } else if (phase == GameManager.Phase.COLLECTION || phase == GameManager.Phase.PVP) {
-            return new GameTime(timeLeft);
+            return phaseClock.remainingSeconds();
         }
-        return new GameTime(0);
+        return 0;
     }
 
     
@@ -269,12 +374,17 @@ public class GameTimer {
 
     
     public boolean isShrinkActive() {
-        return borderShrinkTimeLeft > 0;
+        return shrinkClock.isRunning() && shrinkClock.remainingNanos() > 0;
+    }
+
+    
+    public int getShrinkSecondsLeft() {
+        return isShrinkActive() ? shrinkClock.remainingSeconds() : 0;
     }
 
     
     public String getFormattedShrinkTimeLeft() {
-        int sec = Math.max(0, borderShrinkTimeLeft);
+        int sec = shrinkClock.remainingSeconds();
         int m = sec / 60;
         int s = sec % 60;
         return m + ":" + String.format("%02d", s);
@@ -284,10 +394,10 @@ public class GameTimer {
     public void debugSkip() {
         GameManager.Phase phase = gameManager.getCurrentPhase();
         if (phase == GameManager.Phase.COUNTDOWN) {
-            this.countdownTimeLeft = 1;
+            countdownClock.setRemaining(1);
         } else if (phase == GameManager.Phase.COLLECTION || phase == GameManager.Phase.PVP) {
-            this.timeLeft = 1;
+            phaseClock.setRemaining(1);
         }
     }
 }
-
+
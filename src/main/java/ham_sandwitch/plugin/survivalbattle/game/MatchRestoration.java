@@ -0,0 +1,134 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class MatchRestoration {
+
+    private static final int HISTORY = 10;
+    private static final long EMPTY_POLL_TICKS = 5L;
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final TeleportPipeline teleportPipeline;
+    private final WorkQueue workQueue;
+    private final Deque<String> history = new ArrayDeque<>();
+    private final Histogram restoreDuration = MetricsRegistry.get().histogram("survivalbattle_match_restore_seconds", "Time from match end until the battle world is empty");
+
+    public MatchRestoration(JavaPlugin plugin, TeleportPipeline teleportPipeline) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.teleportPipeline = teleportPipeline;
+        this.workQueue = WorkQueue.get(plugin);
+    }
+
+
+    public CompletableFuture<Void> run(String name, Collection<Player> players, Location lobby, World battleWorld, Consumer<Player> restore) {
+        long start = System.nanoTime();
+        AtomicInteger pending = new AtomicInteger(players.size() + 1);
+        AtomicInteger handledCount = new AtomicInteger();
+        AtomicInteger restored = new AtomicInteger();
+        long[] restoreDone = new long[1];
+        CompletableFuture<Void> allRestored = new CompletableFuture<>();
+        Runnable countDown = () -> {
+            if (pending.decrementAndGet() == 0) {
+                restoreDone[0] = System.nanoTime();
+                allRestored.complete(null);
+            }
+        };
+
+        TeleportPipeline.Batch batch = teleportPipeline.newBatch(name);
+        Consumer<Player> queueRestore = handled -> {
+            handledCount.incrementAndGet();
+            workQueue.submit(WorkQueue.Priority.NORMAL, handled, q -> {
+                try {
+                    restore.accept(q);
+                    restored.incrementAndGet();
+                } finally {
+                    countDown.run();
+                }
+            }, countDown);
+        };
+        Consumer<Player> retryThenRestore = failed -> {
+            if (failed.isOnline()) scheduler.teleport(failed, lobby);
+            queueRestore.accept(failed);
+        };
+        for (Player p : players) {
+            batch.add(p, lobby, queueRestore, retryThenRestore);
+        }
+        long[] teleportDone = new long[1];
+        batch.start().whenComplete((v, ex) -> {
+            teleportDone[0] = System.nanoTime();
+            int missing = players.size() - handledCount.get();
+            if (missing > 0) {
+                plugin.getLogger().warning("Restore " + name + ": " + missing + " player(s) were never handled; their state stays pending until they rejoin");
+                for (int i = 0; i < missing; i++) countDown.run();
+            }
+            countDown.run();
+        });
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        allRestored.thenRun(() -> scheduler.runGlobal(() -> waitUntilEmpty(battleWorld, System.nanoTime(), () -> {
+            long end = System.nanoTime();
+            restoreDuration.observeNanos(end - start);
+            record(String.format("%s: %d players (%d restored), teleport %dms, restore %dms, world empty %dms, total %dms",
+                    name, players.size(), restored.get(),
+                    (teleportDone[0] - start) / 1_000_000L,
+                    (restoreDone[0] - teleportDone[0]) / 1_000_000L,
+                    (end - restoreDone[0]) / 1_000_000L,
+                    (end - start) / 1_000_000L));
+            done.complete(null);
+        })));
+        return done;
+    }
+
+
+    private void waitUntilEmpty(World world, long since, Runnable then) {
+        if (world == null) {
+            then.run();
+            return;
+        }
+        long timeoutNanos = Math.max(1, GameConfig.get().worldEmptyTimeoutSeconds()) * 1_000_000_000L;
+        TaskHandle[] poll = new TaskHandle[1];
+        poll[0] = scheduler.runGlobalTimer(() -> {
+            int left = world.getPlayers().size();
+            boolean timedOut = System.nanoTime() - since >= timeoutNanos;
+            if (left > 0 && !timedOut) return;
+            if (left > 0) {
+                plugin.getLogger().warning("World " + world.getName() + " still has " + left + " player(s) after restore; unloading anyway");
+            }
+            poll[0].cancel();
+            then.run();
+        }, 1L, EMPTY_POLL_TICKS);
+    }
+
+    private void record(String summary) {
+        plugin.getLogger().info("Match restore " + summary);
+        synchronized (history) {
+            history.addFirst(summary);
+            while (history.size() > HISTORY) history.removeLast();
+        }
+    }
+
+    public List<String> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+}
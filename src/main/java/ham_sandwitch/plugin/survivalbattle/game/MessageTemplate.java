@@ -0,0 +1,125 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String source;
+    private final String[] literals;
+    private final int[] slots;
+    private final int[] widths;
+
+    private MessageTemplate(String source, String[] literals, int[] slots, int[] widths) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.widths = widths;
+    }
+
+
+    public static MessageTemplate compile(String source, String... keys) {
+        if (source == null) source = "";
+        List<String> literals = new ArrayList<>();
+        List<int[]> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            int open = source.indexOf('{', i);
+            int close = open < 0 ? -1 : source.indexOf('}', open + 1);
+            if (open < 0 || close < 0) {
+                literal.append(source, i, source.length());
+                break;
+            }
+            literal.append(source, i, open);
+            String token = source.substring(open + 1, close);
+            int width = 0;
+            int colon = token.indexOf(':');
+            if (colon >= 0) {
+                width = parseWidth(token.substring(colon + 1));
+                token = token.substring(0, colon);
+            }
+            int slot = indexOf(keys, token);
+            if (slot < 0) {
+                literal.append(source, open, close + 1);
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(new int[] { slot, width });
+            }
+            i = close + 1;
+        }
+        literals.add(literal.toString());
+
+        int[] slots = new int[placeholders.size()];
+        int[] widths = new int[placeholders.size()];
+        for (int p = 0; p < slots.length; p++) {
+            slots[p] = placeholders.get(p)[0];
+            widths[p] = placeholders.get(p)[1];
+        }
+        return new MessageTemplate(source, literals.toArray(new String[0]), slots, widths);
+    }
+
+    private static int indexOf(String[] keys, String token) {
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k].equals(token)) return k;
+        }
+        return -1;
+    }
+
+    private static int parseWidth(String spec) {
+        try {
+            return Math.max(0, Math.min(20, Integer.parseInt(spec)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+
+    public String render(Object... args) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return renderTo(sb, args).toString();
+    }
+
+    public StringBuilder renderTo(StringBuilder sb, Object... args) {
+        sb.append(literals[0]);
+        for (int p = 0; p < slots.length; p++) {
+            Object value = slots[p] < args.length ? args[slots[p]] : null;
+            appendValue(sb, value, widths[p]);
+            sb.append(literals[p + 1]);
+        }
+        return sb;
+    }
+
+    private static void appendValue(StringBuilder sb, Object value, int width) {
+        if (value instanceof Integer || value instanceof Long) {
+            long n = ((Number) value).longValue();
+            if (width > 0) {
+                int digits = n < 0 ? 1 : 0;
+                long rest = Math.abs(n);
+                do { digits++; rest /= 10; } while (rest > 0);
+                if (n < 0) {
+                    sb.append('-');
+                    n = -n;
+                }
+                for (int pad = digits; pad < width; pad++) sb.append('0');
+            }
+            sb.append(n);
+        } else if (value instanceof CharSequence) {
+            sb.append((CharSequence) value);
+        } else {
+            sb.append(value);
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean hasPlaceholders() {
+        return slots.length > 0;
+    }
+}
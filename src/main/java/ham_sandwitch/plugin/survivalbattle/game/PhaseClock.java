@@ -0,0 +1,75 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+public class PhaseClock {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private long startNanos;
+    private long deadlineNanos;
+    private int plannedSeconds;
+    private int lastSecond;
+    private int runs;
+    private boolean running;
+
+
+    public synchronized void start(int seconds) {
+        long now = System.nanoTime();
+        startNanos = now;
+        deadlineNanos = now + Math.max(0, seconds) * NANOS_PER_SECOND;
+        plannedSeconds = Math.max(0, seconds);
+        lastSecond = plannedSeconds;
+        runs = 0;
+        running = true;
+    }
+
+
+    public synchronized void setRemaining(int seconds) {
+        if (!running) {
+            start(seconds);
+            return;
+        }
+        deadlineNanos = System.nanoTime() + Math.max(0, seconds) * NANOS_PER_SECOND;
+        lastSecond = Math.max(lastSecond, seconds);
+    }
+
+    public synchronized void clear() {
+        running = false;
+        lastSecond = 0;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+
+    public synchronized int tick() {
+        runs++;
+        lastSecond = remainingSeconds();
+        return lastSecond;
+    }
+
+    public synchronized int getLastSecond() {
+        return lastSecond;
+    }
+
+    public synchronized long remainingNanos() {
+        if (!running) return 0L;
+        return Math.max(0L, deadlineNanos - System.nanoTime());
+    }
+
+    public synchronized int remainingSeconds() {
+        return (int) ((remainingNanos() + NANOS_PER_SECOND / 2) / NANOS_PER_SECOND);
+    }
+
+    public synchronized double progress() {
+        if (plannedSeconds <= 0) return 0.0;
+        return Math.max(0.0, Math.min(1.0, (double) remainingNanos() / (plannedSeconds * NANOS_PER_SECOND)));
+    }
+
+
+    public synchronized String driftSummary(String name) {
+        double wall = (System.nanoTime() - startNanos) / (double) NANOS_PER_SECOND;
+        int behind = Math.max(0, plannedSeconds - runs);
+        return String.format("%s: planned %ds, wall %.1fs, %d timer runs, tick-counted clock would lag %ds", name, plannedSeconds, wall, runs, behind);
+    }
+}
@@ -0,0 +1,188 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.game.GameManager.Phase;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+
+public class PhaseMachine {
+
+    public static final int AS_SOON_AS_POSSIBLE = Integer.MAX_VALUE;
+
+    private final JavaPlugin plugin;
+    private final Phase[] order;
+    private final EnumMap<Phase, Stage> stages = new EnumMap<>(Phase.class);
+    private volatile String lastTransitionSummary = "none";
+    private long enteredNanos = System.nanoTime();
+
+    public PhaseMachine(JavaPlugin plugin, Phase... order) {
+        this.plugin = plugin;
+        this.order = order.clone();
+        for (Phase p : Phase.values()) stages.put(p, new Stage(p));
+    }
+
+
+    public Stage stage(Phase phase) {
+        return stages.get(phase);
+    }
+
+    public Phase next(Phase phase) {
+        for (int i = 0; i < order.length - 1; i++) {
+            if (order[i] == phase) return order[i + 1];
+        }
+        return null;
+    }
+
+
+    public void onRemaining(Phase current, int secondsLeft) {
+        Phase upcoming = next(current);
+        if (upcoming == null) return;
+        for (PrepareStep step : stages.get(upcoming).steps) {
+            if (!step.isStarted() && secondsLeft <= step.leadSeconds.getAsInt()) step.start();
+        }
+    }
+
+
+    public void transition(Phase from, Phase to) {
+        long begin = System.nanoTime();
+        if (from != Phase.IDLE) {
+            MetricsRegistry.get().histogram("survivalbattle_phase_duration_seconds", "Wall time spent in each game phase",
+                    "phase", from.name()).observeNanos(begin - enteredNanos);
+        }
+        enteredNanos = begin;
+        Stage leaving = stages.get(from);
+        Stage entering = stages.get(to);
+
+        long exitNanos = leaving.run(leaving.exit, "exit");
+        StringBuilder prepared = new StringBuilder();
+        for (PrepareStep step : entering.steps) {
+            if (!step.isStarted()) step.start();
+            if (prepared.length() > 0) prepared.append(", ");
+            prepared.append(step.describe());
+        }
+        long enterNanos = entering.run(entering.enter, "enter");
+
+        if (to == Phase.IDLE) {
+            for (Stage s : stages.values()) s.resetSteps();
+        } else {
+            leaving.resetSteps();
+        }
+
+        String summary = String.format("%s -> %s in %.1fms (exit %.1fms, enter %.1fms%s)",
+                from, to, (System.nanoTime() - begin) / 1_000_000.0, exitNanos / 1_000_000.0, enterNanos / 1_000_000.0,
+                prepared.length() > 0 ? "; prepared: " + prepared : "");
+        lastTransitionSummary = summary;
+        MetricsRegistry.get().histogram("survivalbattle_phase_transition_seconds", "Main-thread cost of phase exit and enter hooks",
+                "to", to.name()).observeSince(begin);
+        plugin.getLogger().info("Phase " + summary);
+    }
+
+    public String getLastTransitionSummary() {
+        return lastTransitionSummary;
+    }
+
+
+    public final class Stage {
+        private final Phase phase;
+        private final List<PrepareStep> steps = new ArrayList<>();
+        private Runnable enter;
+        private Runnable exit;
+
+        private Stage(Phase phase) {
+            this.phase = phase;
+        }
+
+        public Stage prepare(String name, IntSupplier leadSeconds, Supplier<CompletableFuture<?>> action) {
+            steps.add(new PrepareStep(phase + "/" + name, leadSeconds, action));
+            return this;
+        }
+
+        public Stage enter(Runnable enter) {
+            this.enter = enter;
+            return this;
+        }
+
+        public Stage exit(Runnable exit) {
+            this.exit = exit;
+            return this;
+        }
+
+        private long run(Runnable hook, String kind) {
+            if (hook == null) return 0L;
+            long start = System.nanoTime();
+            try {
+                hook.run();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Phase " + phase + " " + kind + " failed: " + e.getMessage());
+            }
+            return System.nanoTime() - start;
+        }
+
+        private void resetSteps() {
+            for (PrepareStep step : steps) step.reset();
+        }
+    }
+
+
+    private final class PrepareStep {
+        private final String name;
+        private final IntSupplier leadSeconds;
+        private final Supplier<CompletableFuture<?>> action;
+        private volatile long startNanos;
+        private volatile long doneNanos;
+        private volatile boolean failed;
+
+        private PrepareStep(String name, IntSupplier leadSeconds, Supplier<CompletableFuture<?>> action) {
+            this.name = name;
+            this.leadSeconds = leadSeconds;
+            this.action = action;
+        }
+
+        boolean isStarted() {
+            return startNanos != 0L;
+        }
+
+        void start() {
+            long started = System.nanoTime();
+            startNanos = started;
+            CompletableFuture<?> future;
+            try {
+                future = action.get();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Prepare step " + name + " failed: " + e.getMessage());
+                future = null;
+            }
+            if (future == null) {
+                doneNanos = System.nanoTime();
+                return;
+            }
+            future.whenComplete((v, ex) -> {
+                if (startNanos != started) return;
+                if (ex != null) {
+                    failed = true;
+                    plugin.getLogger().warning("Prepare step " + name + " failed: " + ex.getMessage());
+                }
+                doneNanos = System.nanoTime();
+            });
+        }
+
+        void reset() {
+            startNanos = 0L;
+            doneNanos = 0L;
+            failed = false;
+        }
+
+        String describe() {
+            long done = doneNanos;
+            if (done == 0L) return name + " pending";
+            return name + (failed ? " failed " : " ") + (done - startNanos) / 1_000_000L + "ms";
+        }
+    }
+}
@@ -5,7 +5,6 @@ import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
@@ -15,16 +14,22 @@ import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
 import java.util.Collections;
-import java.util.List;
+import java.util.Map;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
 
 public class PlayerSetupManager {
     
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorkQueue workQueue;
     private final Location lobbyLocation;
     private final Location waitingLocation;
     
     public PlayerSetupManager(JavaPlugin plugin, Location lobbyLocation, Location waitingLocation) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.workQueue = WorkQueue.get(plugin);
         this.lobbyLocation = lobbyLocation;
         this.waitingLocation = waitingLocation;
     }
@@ -79,14 +84,14 @@ public class PlayerSetupManager {
         p.getInventory().setItem(8, createLobbyItem(Material.ENDER_EYE, "§e観戦モード", "観戦者になります"));
 
         
-        boolean allowTeam = plugin.getConfig().getBoolean("teams.allow_selection_in_waiting", true);
+        boolean allowTeam = GameConfig.get().teamSelectionInWaiting();
         if (allowTeam) {
             p.getInventory().setItem(2, createLobbyItem(Material.CHEST, "§bチーム選択", "クリックでチームメニューを開きます"));
         }
         
         
         p.updateInventory();
-        plugin.getServer().getScheduler().runTaskLater(plugin, p::updateInventory, 2L);
+        scheduler.runForEntityLater(p, p::updateInventory, 2L);
     }
     
     
@@ -96,6 +101,11 @@ public class PlayerSetupManager {
         resetPlayer(p);
         p.setGameMode(GameMode.SURVIVAL);
         
+        workQueue.submit(WorkQueue.Priority.NORMAL, p, this::giveStartingKit);
+    }
+
+    private void giveStartingKit(Player p) {
+        if (p.getGameMode() != GameMode.SURVIVAL) return;
         giveInitialGear(p);
         applyInitialEffects(p);
         
@@ -138,7 +148,7 @@ public class PlayerSetupManager {
         p.setGameMode(GameMode.SPECTATOR);
         
         if (battleWorld != null) {
-            p.teleport(battleWorld.getSpawnLocation());
+            scheduler.teleport(p, battleWorld.getSpawnLocation());
         }
         
         p.sendMessage("§7あなたは観戦者になりました。");
@@ -162,57 +172,22 @@ public class PlayerSetupManager {
     
     
     private void giveInitialGear(Player p) {
-        ConfigurationSection items = plugin.getConfig().getConfigurationSection("items");
-        if (items == null) return;
-        for (String materialName : items.getKeys(false)) {
+        for (Map.Entry<Material, Integer> item : GameConfig.get().startItems().entrySet()) {
             try {
-                Material material = Material.matchMaterial(materialName);
-                int amount = items.getInt(materialName, 1);
-                if (material != null) {
-                    p.getInventory().addItem(new ItemStack(material, Math.max(1, amount)));
-                } else {
-                    plugin.getLogger().warning("Invalid or unknown material in config: " + materialName);
-                }
+                p.getInventory().addItem(new ItemStack(item.getKey(), item.getValue()));
             } catch (Exception e) {
-                plugin.getLogger().warning("Failed to give initial gear for config item '" + materialName + "': " + e.getMessage());
+                plugin.getLogger().warning("Failed to give initial gear for config item '" + item.getKey() + "': " + e.getMessage());
             }
         }
     }
     
     
     private void applyInitialEffects(Player p) {
-        ConfigurationSection effects = plugin.getConfig().getConfigurationSection("effects");
-        if (effects == null) return;
-        for (String effectName : effects.getKeys(false)) {
+        for (PotionEffect effect : GameConfig.get().startEffects()) {
             try {
-                PotionEffectType type = PotionEffectType.getByName(effectName);
-                if (type == null) {
-                    
-                    type = PotionEffectType.getByName(effectName.toUpperCase());
-                }
-                if (type == null) {
-                    plugin.getLogger().warning("Unknown potion effect in config: " + effectName);
-                    continue;
-                }
-
-                String value = effects.getString(effectName, "60");
-                int durationTicks;
-
-                if (value.equalsIgnoreCase("infinite")) {
-                    
-                    durationTicks = 2_000_000;
-                } else {
-                    try {
-                        durationTicks = Integer.parseInt(value) * 20;
-                    } catch (NumberFormatException nfe) {
-                        plugin.getLogger().warning("Invalid effect duration for '" + effectName + "' in config: " + value + ", defaulting to 60s");
-                        durationTicks = 60 * 20;
-                    }
-                }
-
-                p.addPotionEffect(new PotionEffect(type, durationTicks, 0, false));
+                p.addPotionEffect(effect);
             } catch (Exception e) {
-                plugin.getLogger().warning("Failed to apply effect from config: " + effectName + " -> " + e.getMessage());
+                plugin.getLogger().warning("Failed to apply effect from config: " + effect.getType().getName() + " -> " + e.getMessage());
             }
         }
     }
@@ -1,16 +1,28 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
-import java.util.HashMap;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.GameMode;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
 public class PlayerStateManager {
+    private static final Object FILE_LOCK = new Object();
+
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final File pendingFolder;
 
     public static class SavedPlayerState {
         public ItemStack[] contents;
@@ -22,10 +34,12 @@ public class PlayerStateManager {
         public GameMode gameMode;
     }
 
-    private final Map<UUID, SavedPlayerState> saved = new HashMap<>();
+    private final Map<UUID, SavedPlayerState> saved = new ConcurrentHashMap<>();
 
     public PlayerStateManager(JavaPlugin plugin) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.pendingFolder = new File(plugin.getDataFolder(), "pending_restores");
     }
 
     public boolean hasSavedState(UUID uuid) {
@@ -46,6 +60,7 @@ public class PlayerStateManager {
             s.health = p.getHealth();
             s.gameMode = p.getGameMode();
             saved.put(p.getUniqueId(), s);
+            persist(p.getUniqueId(), s);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to save pre-match state for " + (p == null ? "<null>" : p.getName()) + ": " + e.getMessage());
         }
@@ -73,12 +88,96 @@ public class PlayerStateManager {
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to restore post-match state for " + p.getName() + ": " + e.getMessage());
         } finally {
-            saved.remove(p.getUniqueId());
+            remove(p.getUniqueId());
         }
     }
 
     public void remove(UUID uuid) {
-        saved.remove(uuid);
+        if (saved.remove(uuid) == null) return;
+        File file = fileFor(uuid);
+        runFileTask(() -> {
+            synchronized (FILE_LOCK) {
+                if (!saved.containsKey(uuid) && file.exists() && !file.delete()) {
+                    plugin.getLogger().warning("Could not delete pending restore file " + file.getName());
+                }
+            }
+        });
+    }
+
+    
+    private void persist(UUID uuid, SavedPlayerState s) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("contents", Arrays.asList(s.contents));
+        yaml.set("armor", Arrays.asList(s.armor));
+        yaml.set("offhand", s.offhand);
+        yaml.set("food", s.foodLevel);
+        yaml.set("saturation", (double) s.saturation);
+        yaml.set("health", s.health);
+        yaml.set("gamemode", s.gameMode != null ? s.gameMode.name() : null);
+        String data = yaml.saveToString();
+        File file = fileFor(uuid);
+        runFileTask(() -> {
+            synchronized (FILE_LOCK) {
+                if (saved.get(uuid) != s) return;
+                try {
+                    pendingFolder.mkdirs();
+                    File tmp = new File(pendingFolder, file.getName() + ".tmp");
+                    Files.write(tmp.toPath(), data.getBytes(StandardCharsets.UTF_8));
+                    Files.move(tmp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Failed to persist pre-match state for " + uuid + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    
+    private void runFileTask(Runnable task) {
+        if (plugin.isEnabled()) {
+            scheduler.runAsync(task);
+        } else {
+            task.run();
+        }
+    }
+
+    
+    public boolean loadPersisted(UUID uuid) {
+        if (saved.containsKey(uuid)) return true;
+        File file = fileFor(uuid);
+        synchronized (FILE_LOCK) {
+            if (!file.exists()) return false;
+            try {
+                YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+                SavedPlayerState s = new SavedPlayerState();
+                s.contents = toItems(yaml.getList("contents"));
+                s.armor = toItems(yaml.getList("armor"));
+                s.offhand = yaml.getItemStack("offhand");
+                s.foodLevel = yaml.getInt("food", 20);
+                s.saturation = (float) yaml.getDouble("saturation", 5.0);
+                s.health = yaml.getDouble("health", 20.0);
+                String mode = yaml.getString("gamemode");
+                s.gameMode = mode != null ? GameMode.valueOf(mode) : null;
+                saved.put(uuid, s);
+                return true;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to read pending restore file for " + uuid + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private static ItemStack[] toItems(List<?> list) {
+        if (list == null) return new ItemStack[0];
+        ItemStack[] items = new ItemStack[list.size()];
+        for (int i = 0; i < items.length; i++) {
+            Object o = list.get(i);
+            items[i] = o instanceof ItemStack ? (ItemStack) o : null;
+        }
+        return items;
+    }
+
+    private File fileFor(UUID uuid) {
+        return new File(pendingFolder, uuid + ".yml");
     }
 }
 
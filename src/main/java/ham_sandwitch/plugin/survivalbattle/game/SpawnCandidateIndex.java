@@ -0,0 +1,242 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class SpawnCandidateIndex {
+
+    private static final int INVALID = -1;
+    private static final int RANDOM_PROBES = 64;
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final World world;
+    private final int minY;
+    private final int maxHeight;
+
+    private final Map<Long, int[]> candidates = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyChunks = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<ChunkSnapshot> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong analyzeNanos = new AtomicLong();
+    private volatile long[] keyArray = new long[0];
+    private volatile boolean keysDirty = false;
+    private volatile boolean closed = false;
+    private TaskHandle refreshTask;
+
+    public SpawnCandidateIndex(JavaPlugin plugin, World world) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.world = world;
+        this.minY = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+
+    public void start() {
+        for (Chunk chunk : world.getLoadedChunks()) {
+            offer(chunk);
+        }
+        long interval = Math.max(20L, plugin.getConfig().getLong("spawn_index.refresh_interval_ticks", 100L));
+        refreshTask = scheduler.runGlobalTimer(this::refreshDirtyChunks, interval, interval);
+    }
+
+    public void close() {
+        closed = true;
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        pending.clear();
+        candidates.clear();
+        dirtyChunks.clear();
+        keyArray = new long[0];
+    }
+
+
+    public void offer(Chunk chunk) {
+        if (closed || chunk == null) return;
+        long key = ChunkPregenerator.chunkKey(chunk.getX(), chunk.getZ());
+        if (candidates.containsKey(key) && !dirtyChunks.contains(key)) return;
+        pending.add(chunk.getChunkSnapshot(true, false, false));
+        drain();
+    }
+
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) return;
+        scheduler.runAsync(() -> {
+            try {
+                ChunkSnapshot snapshot;
+                while (!closed && (snapshot = pending.poll()) != null) {
+                    long start = System.nanoTime();
+                    int[] columns = TeleportUtil.findSafeColumns(snapshot, minY, maxHeight);
+                    long key = ChunkPregenerator.chunkKey(snapshot.getX(), snapshot.getZ());
+                    dirtyChunks.remove(key);
+                    if (columns.length == 0) {
+                        if (candidates.remove(key) != null) keysDirty = true;
+                    } else if (candidates.put(key, columns) == null) {
+                        keysDirty = true;
+                    }
+                    analyzeNanos.addAndGet(System.nanoTime() - start);
+                }
+            } finally {
+                draining.set(false);
+                if (!pending.isEmpty() && !closed) drain();
+            }
+        });
+    }
+
+
+    public void invalidate(int x, int y, int z) {
+        long key = ChunkPregenerator.chunkKey(x >> 4, z >> 4);
+        int[] columns = candidates.get(key);
+        if (columns == null) return;
+        int column = ((z & 15) << 4) | (x & 15);
+        for (int i = 0; i < columns.length; i++) {
+            int packed = columns[i];
+            if (packed == INVALID || (packed & 0xFF) != column) continue;
+            columns[i] = INVALID;
+            invalidations.incrementAndGet();
+            dirtyChunks.add(key);
+            return;
+        }
+    }
+
+    private void refreshDirtyChunks() {
+        if (closed || dirtyChunks.isEmpty()) return;
+        for (Long key : new ArrayList<>(dirtyChunks)) {
+            int cx = ChunkPregenerator.chunkX(key);
+            int cz = ChunkPregenerator.chunkZ(key);
+            scheduler.runAt(world, cx, cz, () -> {
+                if (world.isChunkLoaded(cx, cz)) offer(world.getChunkAt(cx, cz));
+            });
+        }
+    }
+
+
+    public Location findInBorder(Random rnd) {
+        double half = Math.max(1.0, world.getWorldBorder().getSize() / 2.0 - 5.0);
+        Location center = world.getWorldBorder().getCenter();
+        return find(rnd, center.getX(), center.getZ(), half, null, 0.0);
+    }
+
+
+    public Location find(Random rnd, double centerX, double centerZ, double halfSize, List<Location> avoid, double minDistance) {
+        long[] keys = keys();
+        if (keys.length == 0) return null;
+
+        for (int attempt = 0; attempt < RANDOM_PROBES; attempt++) {
+            long key = keys[rnd.nextInt(keys.length)];
+            int[] columns = candidates.get(key);
+            if (columns == null || columns.length == 0) continue;
+            Location loc = toLocation(key, columns[rnd.nextInt(columns.length)]);
+            if (loc != null && accepts(loc, centerX, centerZ, halfSize, avoid, minDistance)) return loc;
+        }
+
+
+        int offset = rnd.nextInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[(offset + i) % keys.length];
+            int cx = ChunkPregenerator.chunkX(key) << 4;
+            int cz = ChunkPregenerator.chunkZ(key) << 4;
+            if (cx + 16 < centerX - halfSize || cx > centerX + halfSize || cz + 16 < centerZ - halfSize || cz > centerZ + halfSize) continue;
+            int[] columns = candidates.get(key);
+            if (columns == null) continue;
+            for (int packed : columns) {
+                Location loc = toLocation(key, packed);
+                if (loc != null && accepts(loc, centerX, centerZ, halfSize, avoid, minDistance)) return loc;
+            }
+        }
+        return null;
+    }
+
+    public boolean isCandidate(Location loc) {
+        if (loc == null || !world.equals(loc.getWorld())) return false;
+        int[] columns = candidates.get(ChunkPregenerator.chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+        if (columns == null) return false;
+        int packed = ((loc.getBlockY() - minY) << 8) | ((loc.getBlockZ() & 15) << 4) | (loc.getBlockX() & 15);
+        for (int column : columns) {
+            if (column == packed) return true;
+        }
+        return false;
+    }
+
+    private static boolean accepts(Location loc, double centerX, double centerZ, double halfSize, List<Location> avoid, double minDistance) {
+        if (Math.abs(loc.getX() - centerX) > halfSize || Math.abs(loc.getZ() - centerZ) > halfSize) return false;
+        if (avoid == null || minDistance <= 0.0) return true;
+        double minSq = minDistance * minDistance;
+        for (Location other : avoid) {
+            if (other == null) continue;
+            double dx = other.getX() - loc.getX();
+            double dz = other.getZ() - loc.getZ();
+            if (dx * dx + dz * dz < minSq) return false;
+        }
+        return true;
+    }
+
+    private Location toLocation(long key, int packed) {
+        if (packed == INVALID) return null;
+        int x = (ChunkPregenerator.chunkX(key) << 4) + (packed & 15);
+        int z = (ChunkPregenerator.chunkZ(key) << 4) + ((packed >> 4) & 15);
+        int y = (packed >>> 8) + minY;
+        return new Location(world, x + 0.5, y, z + 0.5);
+    }
+
+    private long[] keys() {
+        if (keysDirty) {
+            keysDirty = false;
+            long[] rebuilt = new long[candidates.size()];
+            int i = 0;
+            for (Long key : candidates.keySet()) {
+                if (i == rebuilt.length) break;
+                rebuilt[i++] = key;
+            }
+            keyArray = i == rebuilt.length ? rebuilt : java.util.Arrays.copyOf(rebuilt, i);
+        }
+        return keyArray;
+    }
+
+
+    public int getIndexedChunks() {
+        return candidates.size();
+    }
+
+    public int getCandidateCount() {
+        int total = 0;
+        for (int[] columns : candidates.values()) {
+            for (int packed : columns) {
+                if (packed != INVALID) total++;
+            }
+        }
+        return total;
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public long getAnalyzeMillis() {
+        return analyzeNanos.get() / 1_000_000L;
+    }
+}
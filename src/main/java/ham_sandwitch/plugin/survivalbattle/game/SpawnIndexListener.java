@@ -0,0 +1,128 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+
+public class SpawnIndexListener implements Listener {
+    private final WorldManager worldManager;
+
+    public SpawnIndexListener(WorldManager worldManager) {
+        this.worldManager = worldManager;
+    }
+
+    private SpawnCandidateIndex indexFor(World world) {
+        SpawnCandidateIndex index = worldManager.getSpawnIndex();
+        if (index == null || world == null || !world.equals(index.getWorld())) return null;
+        return index;
+    }
+
+    private static void invalidate(SpawnCandidateIndex index, Block block) {
+        index.invalidate(block.getX(), block.getY(), block.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getWorld());
+        if (index == null) return;
+        index.offer(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getLocation().getWorld());
+        if (index == null) return;
+        for (Block block : event.blockList()) {
+            invalidate(index, block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        for (Block block : event.blockList()) {
+            invalidate(index, block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getToBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getBlock().getWorld());
+        if (index == null) return;
+        invalidate(index, event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        SpawnCandidateIndex index = indexFor(event.getWorld());
+        if (index == null) return;
+        for (BlockState state : event.getBlocks()) {
+            index.invalidate(state.getX(), state.getY(), state.getZ());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Location;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
+public class SpawnPlanner {
+
+    private static final double SHRINK_FACTOR = 0.8;
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorldManager worldManager;
+    private volatile CompletableFuture<SpawnPlan> pending;
+
+    public SpawnPlanner(JavaPlugin plugin, WorldManager worldManager) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.worldManager = worldManager;
+    }
+
+
+    public static final class SpawnPlan {
+        private final Map<UUID, Location> assignments;
+        private final double separation;
+        private final long computeMillis;
+
+        SpawnPlan(Map<UUID, Location> assignments, double separation, long computeMillis) {
+            this.assignments = assignments;
+            this.separation = separation;
+            this.computeMillis = computeMillis;
+        }
+
+        public Location get(UUID uuid) {
+            return assignments.get(uuid);
+        }
+
+        public int size() {
+            return assignments.size();
+        }
+
+        public double getSeparation() {
+            return separation;
+        }
+
+        public long getComputeMillis() {
+            return computeMillis;
+        }
+    }
+
+
+    public CompletableFuture<SpawnPlan> prepare(List<List<UUID>> groups) {
+        SpawnCandidateIndex index = worldManager.getSpawnIndex();
+        if (index == null || groups.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        GameConfig config = GameConfig.get();
+        double border = config.pvpInitialBorder();
+        double half = Math.max(1.0, border / 2.0 - 5.0);
+        double configured = config.teamSeparation();
+        double separation = configured > 0.0 ? configured : 2.0 * half / Math.ceil(Math.sqrt(groups.size()));
+        double minSeparation = config.minTeamSeparation();
+        double spread = config.playerSpread();
+        double playerSeparation = config.playerSeparation();
+
+        List<List<UUID>> snapshot = new ArrayList<>();
+        for (List<UUID> group : groups) {
+            if (!group.isEmpty()) snapshot.add(new ArrayList<>(group));
+        }
+        Collections.shuffle(snapshot);
+
+        CompletableFuture<SpawnPlan> future = new CompletableFuture<>();
+        pending = future;
+        scheduler.runAsync(() -> {
+            try {
+                future.complete(compute(index, snapshot, half, separation, minSeparation, spread, playerSeparation));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Spawn planning failed: " + e.getMessage());
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+
+    public SpawnPlan take() {
+        CompletableFuture<SpawnPlan> future = pending;
+        pending = null;
+        if (future == null || !future.isDone()) {
+            if (future != null) plugin.getLogger().warning("Spawn plan was not ready at PVP start; falling back to live search");
+            return null;
+        }
+        return future.getNow(null);
+    }
+
+    public void reset() {
+        pending = null;
+    }
+
+
+    private SpawnPlan compute(SpawnCandidateIndex index, List<List<UUID>> groups, double half, double separation,
+            double minSeparation, double spread, double playerSeparation) {
+        long start = System.nanoTime();
+        Random rnd = new Random();
+
+
+        List<Location> centers = new ArrayList<>();
+        double radius = separation;
+        while (centers.size() < groups.size()) {
+            Location center = index.find(rnd, 0.0, 0.0, half, centers, radius);
+            if (center != null) {
+                centers.add(center);
+                continue;
+            }
+            if (radius <= minSeparation) {
+                center = index.find(rnd, 0.0, 0.0, half, null, 0.0);
+                if (center == null) break;
+                centers.add(center);
+                continue;
+            }
+            radius = Math.max(minSeparation, radius * SHRINK_FACTOR);
+        }
+
+
+        Map<UUID, Location> assignments = new HashMap<>();
+        for (int g = 0; g < centers.size(); g++) {
+            Location center = centers.get(g);
+            List<Location> teamPoints = new ArrayList<>();
+            teamPoints.add(center);
+            List<UUID> members = groups.get(g);
+            assignments.put(members.get(0), center);
+            for (int i = 1; i < members.size(); i++) {
+                Location point = index.find(rnd, center.getX(), center.getZ(), spread, teamPoints, playerSeparation);
+                if (point == null) point = center;
+                else teamPoints.add(point);
+                assignments.put(members.get(i), point);
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        plugin.getLogger().info("Spawn plan ready: " + centers.size() + "/" + groups.size() + " groups, separation "
+                + Math.round(radius) + " blocks, " + assignments.size() + " players in " + millis + "ms");
+        return new SpawnPlan(assignments, radius, millis);
+    }
+}
@@ -0,0 +1,77 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
+public class TabHpDisplay {
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorkQueue workQueue;
+    private final GameManager gameManager;
+    private final Map<UUID, Integer> lastSent = new ConcurrentHashMap<>();
+    private final Histogram updateCost = MetricsRegistry.get().histogram("survivalbattle_tab_update_seconds", "Cost of rewriting a tab list name");
+    private volatile boolean enabled;
+    private volatile MessageTemplate format = MessageTemplate.compile("");
+
+    public TabHpDisplay(JavaPlugin plugin, GameManager gameManager) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.workQueue = WorkQueue.get(plugin);
+        this.gameManager = gameManager;
+        reload();
+    }
+
+
+    public void reload() {
+        GameConfig config = GameConfig.get();
+        enabled = config.tabHpEnabled();
+        format = MessageTemplate.compile(config.tabHpFormat(), "name", "hp");
+        lastSent.clear();
+        for (UUID id : new ArrayList<>(gameManager.getPlayerTeams().keySet())) {
+            Player p = Bukkit.getPlayer(id);
+            if (p != null) workQueue.submit(WorkQueue.Priority.COSMETIC, p, this::update);
+        }
+    }
+
+    public void update(Player p) {
+        if (!enabled || p == null || !p.isOnline() || !gameManager.isParticipant(p.getUniqueId())) return;
+        int hp = (int) Math.round(Math.max(0, Math.min(20.0, p.getHealth())));
+        Integer previous = lastSent.put(p.getUniqueId(), hp);
+        if (previous != null && previous == hp) return;
+
+        long start = System.nanoTime();
+        try {
+            p.setPlayerListName(format.render(p.getName(), hp));
+        } catch (Exception ignored) { }
+        updateCost.observeSince(start);
+    }
+
+    public void updateLater(Player p) {
+        if (!enabled || p == null || !gameManager.isParticipant(p.getUniqueId())) return;
+        scheduler.runForEntityLater(p, () -> update(p), 1L);
+    }
+
+
+    public void forget(UUID uuid) {
+        lastSent.remove(uuid);
+    }
+
+    public void clear() {
+        for (UUID id : lastSent.keySet()) {
+            Player p = Bukkit.getPlayer(id);
+            if (p != null) scheduler.runNowOrForEntity(p, () -> p.setPlayerListName(null));
+        }
+        lastSent.clear();
+    }
+}
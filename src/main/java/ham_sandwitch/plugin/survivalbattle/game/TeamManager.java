@@ -1,14 +1,15 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -18,18 +19,37 @@ import ham_sandwitch.plugin.survivalbattle.game.GameManager.Team;
 public class TeamManager {
     private final JavaPlugin plugin;
 
-    private final Set<UUID> alivePlayers = new HashSet<>();
-    private final Map<UUID, Team> playerTeams = new HashMap<>();
+    private final Set<UUID> alivePlayers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Team> playerTeams = new ConcurrentHashMap<>();
     private final EnumMap<Team, Set<UUID>> teamMembers = new EnumMap<>(Team.class);
 
+    private final Set<UUID> aliveView = Collections.unmodifiableSet(alivePlayers);
+    private final Map<UUID, Team> playerTeamsView = Collections.unmodifiableMap(playerTeams);
+    private final Map<Team, Set<UUID>> teamMembersView;
+
     public TeamManager(JavaPlugin plugin) {
         this.plugin = plugin;
-        for (Team t : Team.values()) teamMembers.put(t, new HashSet<>());
+        EnumMap<Team, Set<UUID>> views = new EnumMap<>(Team.class);
+        for (Team t : Team.values()) {
+            Set<UUID> members = ConcurrentHashMap.newKeySet();
+            teamMembers.put(t, members);
+            views.put(t, Collections.unmodifiableSet(members));
+        }
+        this.teamMembersView = Collections.unmodifiableMap(views);
     }
 
-    public Set<UUID> getAlivePlayers() { return alivePlayers; }
-    public Map<UUID, Team> getPlayerTeams() { return playerTeams; }
-    public EnumMap<Team, Set<UUID>> getTeamMembers() { return teamMembers; }
+    
+    public Set<UUID> getAlivePlayers() { return aliveView; }
+    public Map<UUID, Team> getPlayerTeams() { return playerTeamsView; }
+    public Map<Team, Set<UUID>> getTeamMembers() { return teamMembersView; }
+
+    public int countAlive(Team team) {
+        int count = 0;
+        for (UUID u : teamMembers.get(team)) {
+            if (alivePlayers.contains(u)) count++;
+        }
+        return count;
+    }
 
     public void clearAll() {
         alivePlayers.clear();
@@ -65,7 +85,7 @@ public class TeamManager {
         Team[] teams = Team.values();
         int teamCount = teams.length;
         List<Player> copy = new ArrayList<>(players);
-        java.util.Collections.shuffle(copy, new Random());
+        Collections.shuffle(copy, new Random());
         int playerIndex = 0;
         for (Player p : copy) {
             Team assigned = teams[playerIndex % teamCount];
@@ -91,7 +111,7 @@ public class TeamManager {
 
     public Set<UUID> getAllParticipants() {
         Set<UUID> participants = new HashSet<>();
-        for (Team t : Team.values()) participants.addAll(teamMembers.getOrDefault(t, java.util.Collections.emptySet()));
+        for (Team t : Team.values()) participants.addAll(teamMembers.get(t));
         return participants;
     }
 }
@@ -0,0 +1,199 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Counter;
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class TeleportPipeline {
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private volatile String lastBatchSummary = "none";
+    private final Histogram playerLatency = MetricsRegistry.get().histogram("survivalbattle_teleport_seconds", "Per-player teleport latency from admission to arrival");
+    private final Histogram batchDuration = MetricsRegistry.get().histogram("survivalbattle_teleport_batch_seconds", "Time to move a whole teleport batch");
+    private final Counter teleportFailures = MetricsRegistry.get().counter("survivalbattle_teleport_failures_total", "Teleports that failed or were skipped");
+
+    public TeleportPipeline(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+    }
+
+    public Batch newBatch(String name) {
+        return new Batch(name);
+    }
+
+    public String getLastBatchSummary() {
+        return lastBatchSummary;
+    }
+
+    private static final class Entry {
+        final Player player;
+        final CompletableFuture<Location> destination;
+        final Consumer<Player> before;
+        final Consumer<Player> after;
+        final Consumer<Player> failed;
+
+        Entry(Player player, CompletableFuture<Location> destination, Consumer<Player> before, Consumer<Player> after, Consumer<Player> failed) {
+            this.player = player;
+            this.destination = destination;
+            this.before = before;
+            this.after = after;
+            this.failed = failed;
+        }
+
+        Location resolved() {
+            return destination.isCompletedExceptionally() ? null : destination.getNow(null);
+        }
+    }
+
+
+    public final class Batch {
+        private final String name;
+        private final List<Entry> entries = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private final ChunkTickets tickets = new ChunkTickets(plugin);
+        private TaskHandle admitTask;
+        private long startNanos;
+        private int ticks;
+
+        private Batch(String name) {
+            this.name = name;
+        }
+
+        public Batch add(Player player, Location destination, Consumer<Player> after) {
+            return add(player, CompletableFuture.completedFuture(destination), null, after);
+        }
+
+        public Batch add(Player player, Location destination, Consumer<Player> after, Consumer<Player> onFailure) {
+            return add(player, CompletableFuture.completedFuture(destination), null, after, onFailure);
+        }
+
+        public Batch add(Player player, CompletableFuture<Location> destination, Consumer<Player> before, Consumer<Player> after) {
+            return add(player, destination, before, after, null);
+        }
+
+        public Batch add(Player player, CompletableFuture<Location> destination, Consumer<Player> before, Consumer<Player> after, Consumer<Player> onFailure) {
+            if (player != null && destination != null) {
+                entries.add(new Entry(player, destination, before, after, onFailure));
+            }
+            return this;
+        }
+
+
+        public CompletableFuture<Void> start() {
+            startNanos = System.nanoTime();
+            remaining.set(entries.size());
+            if (entries.isEmpty()) {
+                done.complete(null);
+                return done;
+            }
+
+            List<CompletableFuture<Location>> destinations = new ArrayList<>();
+            for (Entry entry : entries) destinations.add(entry.destination);
+            CompletableFuture.allOf(destinations.toArray(new CompletableFuture[0])).whenComplete((v, ex) -> scheduler.runGlobal(() -> {
+                prefetch();
+                int perTick = GameConfig.get().teleportPlayersPerTick();
+                ArrayDeque<Entry> queue = new ArrayDeque<>(entries);
+                admitTask = scheduler.runGlobalTimer(() -> {
+                    ticks++;
+                    for (int i = 0; i < perTick && !queue.isEmpty(); i++) {
+                        admit(queue.poll());
+                    }
+                    if (queue.isEmpty() && admitTask != null) {
+                        admitTask.cancel();
+                        admitTask = null;
+                    }
+                }, 1L, 1L);
+            }));
+            return done;
+        }
+
+        private void prefetch() {
+            for (Entry entry : entries) {
+                tickets.hold(entry.resolved());
+            }
+        }
+
+        private void admit(Entry entry) {
+            Player p = entry.player;
+            Location dest = entry.resolved();
+            if (dest == null || !p.isOnline()) {
+                fail(entry);
+                finishOne(0L);
+                return;
+            }
+            long admitted = System.nanoTime();
+            Runnable retired = () -> {
+                fail(entry);
+                finishOne(System.nanoTime() - admitted);
+            };
+            scheduler.runForEntity(p, () -> {
+                try {
+                    if (entry.before != null) entry.before.accept(p);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Teleport preparation failed for " + p.getName() + ": " + e.getMessage());
+                }
+                p.teleportAsync(dest).whenComplete((ok, ex) -> scheduler.runForEntity(p, () -> {
+                    if (ex != null || !Boolean.TRUE.equals(ok)) {
+                        fail(entry);
+                    } else {
+                        try {
+                            if (entry.after != null) entry.after.accept(p);
+                        } catch (Exception e) {
+                            plugin.getLogger().warning("Post-teleport setup failed for " + p.getName() + ": " + e.getMessage());
+                        }
+                    }
+                    finishOne(System.nanoTime() - admitted);
+                }, retired));
+            }, retired);
+        }
+
+        private void fail(Entry entry) {
+            failed.incrementAndGet();
+            if (entry.failed == null) return;
+            try {
+                entry.failed.accept(entry.player);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Teleport failure handling failed for " + entry.player.getName() + ": " + e.getMessage());
+            }
+        }
+
+        private void finishOne(long latencyNanos) {
+            if (latencyNanos > 0L) playerLatency.observeNanos(latencyNanos);
+            totalLatencyNanos.addAndGet(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+            if (remaining.decrementAndGet() > 0) return;
+
+            scheduler.runGlobal(() -> {
+                tickets.releaseAll();
+                long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+                long avgMs = totalLatencyNanos.get() / Math.max(1, entries.size()) / 1_000_000L;
+                long maxMs = maxLatencyNanos.get() / 1_000_000L;
+                batchDuration.observeSince(startNanos);
+                teleportFailures.inc(failed.get());
+                lastBatchSummary = name + ": " + entries.size() + " players, " + elapsedMs + "ms over " + ticks + " ticks (avg " + avgMs
+                        + "ms, max " + maxMs + "ms, failed " + failed.get() + ")";
+                plugin.getLogger().info("Teleport batch " + lastBatchSummary);
+                done.complete(null);
+            });
+        }
+    }
+}
@@ -1,168 +1,259 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.block.Block;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
 
 public class TeleportUtil {
-    
-    private static final int MAX_FALL_DISTANCE = 3;
+
     private static final int MAX_SEARCH_RADIUS = 5;
     private static final int MAX_VERTICAL_SEARCH = 10;
-    
-    
+
+
+    interface BlockSource {
+        Material getType(int x, int y, int z);
+        int getMaxHeight();
+        int getHighestBlockY(int x, int z);
+    }
+
+    private static final class WorldSource implements BlockSource {
+        private final World world;
+
+        WorldSource(World world) {
+            this.world = world;
+        }
+
+        @Override
+        public Material getType(int x, int y, int z) {
+            return world.getBlockAt(x, y, z).getType();
+        }
+
+        @Override
+        public int getMaxHeight() {
+            return world.getMaxHeight();
+        }
+
+        @Override
+        public int getHighestBlockY(int x, int z) {
+            return world.getHighestBlockYAt(x, z);
+        }
+    }
+
+
+    private static final class SnapshotSource implements BlockSource {
+        private final Map<Long, ChunkSnapshot> snapshots;
+        private final int maxHeight;
+
+        SnapshotSource(Map<Long, ChunkSnapshot> snapshots, int maxHeight) {
+            this.snapshots = snapshots;
+            this.maxHeight = maxHeight;
+        }
+
+        private ChunkSnapshot snapshotAt(int x, int z) {
+            return snapshots.get(ChunkPregenerator.chunkKey(x >> 4, z >> 4));
+        }
+
+        @Override
+        public Material getType(int x, int y, int z) {
+            ChunkSnapshot snapshot = snapshotAt(x, z);
+            if (snapshot == null) return Material.BEDROCK;
+            return snapshot.getBlockType(x & 15, y, z & 15);
+        }
+
+        @Override
+        public int getMaxHeight() {
+            return maxHeight;
+        }
+
+        @Override
+        public int getHighestBlockY(int x, int z) {
+            ChunkSnapshot snapshot = snapshotAt(x, z);
+            if (snapshot == null) return maxHeight - 2;
+            return snapshot.getHighestBlockYAt(x & 15, z & 15);
+        }
+    }
+
+
     public static Location findSafeLocation(Location loc) {
         if (loc == null || loc.getWorld() == null) return loc;
-        
+        return search(new WorldSource(loc.getWorld()), loc);
+    }
+
+
+    public static CompletableFuture<Location> findSafeLocationAsync(JavaPlugin plugin, Location loc) {
+        if (loc == null || loc.getWorld() == null) return CompletableFuture.completedFuture(loc);
+
         World world = loc.getWorld();
-        int x = loc.getBlockX();
-        int y = loc.getBlockY();
-        int z = loc.getBlockZ();
-        
-        
-        Location currentLoc = new Location(world, x + 0.5, y, z + 0.5, loc.getYaw(), loc.getPitch());
-        if (isSafeLocation(currentLoc)) {
-            return currentLoc;
-        }
-        
-        
-        for (int dy = 0; dy <= MAX_VERTICAL_SEARCH; dy++) {
-            
-            if (dy > 0) {
-                Location below = new Location(world, x + 0.5, y - dy, z + 0.5, loc.getYaw(), loc.getPitch());
-                if (isSafeLocation(below)) {
-                    return below;
-                }
-            }
-            
-            
-            Location above = new Location(world, x + 0.5, y + dy, z + 0.5, loc.getYaw(), loc.getPitch());
-            if (isSafeLocation(above)) {
-                return above;
+        Location origin = loc.clone();
+        int minChunkX = (origin.getBlockX() - MAX_SEARCH_RADIUS) >> 4;
+        int maxChunkX = (origin.getBlockX() + MAX_SEARCH_RADIUS) >> 4;
+        int minChunkZ = (origin.getBlockZ() - MAX_SEARCH_RADIUS) >> 4;
+        int maxChunkZ = (origin.getBlockZ() + MAX_SEARCH_RADIUS) >> 4;
+
+        Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                long key = ChunkPregenerator.chunkKey(cx, cz);
+                loads.add(world.getChunkAtAsync(cx, cz, true).thenAccept(chunk -> {
+                    ChunkSnapshot snapshot = chunk.getChunkSnapshot(true, false, false);
+                    synchronized (snapshots) {
+                        snapshots.put(key, snapshot);
+                    }
+                }));
             }
         }
-        
-        
-        for (int radius = 1; radius <= MAX_SEARCH_RADIUS; radius++) {
-            for (int dx = -radius; dx <= radius; dx++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    if (Math.abs(dx) != radius && Math.abs(dz) != radius) continue;
-                    
-                    Location searchLoc = new Location(world, x + dx + 0.5, y, z + dz + 0.5, loc.getYaw(), loc.getPitch());
-                    Location safe = findSafeLocationVertical(searchLoc);
-                    if (safe != null) {
-                        return safe;
-                    }
+
+        PluginScheduler scheduler = new PluginScheduler(plugin);
+        Executor async = scheduler::runAsync;
+        int maxHeight = world.getMaxHeight();
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(v -> search(new SnapshotSource(snapshots, maxHeight), origin), async)
+                .exceptionally(ex -> {
+                    plugin.getLogger().warning("Async safe-location search failed near " + origin.getBlockX() + "," + origin.getBlockZ()
+                            + ", using origin: " + ex.getMessage());
+                    return origin;
+                });
+    }
+
+
+    static int[] findSafeColumns(ChunkSnapshot snapshot, int minY, int maxHeight) {
+        int[] columns = new int[256];
+        int count = 0;
+        for (int lz = 0; lz < 16; lz++) {
+            for (int lx = 0; lx < 16; lx++) {
+                int feetY = snapshot.getHighestBlockYAt(lx, lz) + 1;
+                if (feetY < 0 || feetY >= maxHeight - 1) continue;
+                int feet = snapshot.getBlockType(lx, feetY, lz).ordinal();
+                int head = snapshot.getBlockType(lx, feetY + 1, lz).ordinal();
+                int ground = snapshot.getBlockType(lx, feetY - 1, lz).ordinal();
+                if (isSafe(feet, head, ground)) {
+                    columns[count++] = ((feetY - minY) << 8) | (lz << 4) | lx;
                 }
             }
         }
-        
-        
-        int highestY = world.getHighestBlockYAt(x, z);
-        return new Location(world, x + 0.5, highestY + 1, z + 0.5, loc.getYaw(), loc.getPitch());
-    }
-    
-    
-    private static Location findSafeLocationVertical(Location loc) {
-        World world = loc.getWorld();
-        int x = loc.getBlockX();
-        int z = loc.getBlockZ();
-        
-        for (int y = loc.getBlockY(); y >= loc.getBlockY() - MAX_VERTICAL_SEARCH && y >= 0; y--) {
-            Location checkLoc = new Location(world, x + 0.5, y, z + 0.5, loc.getYaw(), loc.getPitch());
-            if (isSafeLocation(checkLoc)) {
-                return checkLoc;
+        return java.util.Arrays.copyOf(columns, count);
+    }
+
+
+    private static Location search(BlockSource blocks, Location loc) {
+        long found = searchPacked(blocks, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        return new Location(loc.getWorld(), loc.getBlockX() + unpackDx(found) + 0.5, unpackY(found),
+                loc.getBlockZ() + unpackDz(found) + 0.5, loc.getYaw(), loc.getPitch());
+    }
+
+
+    static long searchPacked(BlockSource blocks, int x, int y, int z) {
+        int maxHeight = blocks.getMaxHeight();
+        int lo = Math.max(y - MAX_VERTICAL_SEARCH, 0);
+        int hi = Math.min(y + MAX_VERTICAL_SEARCH, maxHeight - 2);
+        int[] column = new int[2 * MAX_VERTICAL_SEARCH + 3];
+
+
+        if (lo <= hi) {
+            loadColumn(blocks, x, z, lo, hi, column);
+            for (int dy = 0; dy <= MAX_VERTICAL_SEARCH; dy++) {
+                if (dy > 0 && isSafeAt(column, lo, hi, y - dy)) return pack(0, y - dy, 0);
+                if (isSafeAt(column, lo, hi, y + dy)) return pack(0, y + dy, 0);
             }
-        }
-        
-        for (int y = loc.getBlockY() + 1; y <= loc.getBlockY() + MAX_VERTICAL_SEARCH && y < world.getMaxHeight(); y++) {
-            Location checkLoc = new Location(world, x + 0.5, y, z + 0.5, loc.getYaw(), loc.getPitch());
-            if (isSafeLocation(checkLoc)) {
-                return checkLoc;
+
+
+            for (int radius = 1; radius <= MAX_SEARCH_RADIUS; radius++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    for (int dz = -radius; dz <= radius; dz++) {
+                        if (Math.abs(dx) != radius && Math.abs(dz) != radius) continue;
+
+                        loadColumn(blocks, x + dx, z + dz, lo, hi, column);
+                        for (int cy = y; cy >= lo; cy--) {
+                            if (isSafeAt(column, lo, hi, cy)) return pack(dx, cy, dz);
+                        }
+                        for (int cy = y + 1; cy <= hi; cy++) {
+                            if (isSafeAt(column, lo, hi, cy)) return pack(dx, cy, dz);
+                        }
+                    }
+                }
             }
         }
-        
-        return null;
-    }
-    
-    
-    private static boolean isSafeLocation(Location loc) {
-        if (loc == null || loc.getWorld() == null) return false;
-        
-        World world = loc.getWorld();
-        int x = loc.getBlockX();
-        int y = loc.getBlockY();
-        int z = loc.getBlockZ();
-        
-        
-        if (y < 0 || y >= world.getMaxHeight() - 1) return false;
-        
-        Block feet = world.getBlockAt(x, y, z);
-        Block head = world.getBlockAt(x, y + 1, z);
-        Block ground = world.getBlockAt(x, y - 1, z);
-        
-        
-        if (!isPassable(feet) || !isPassable(head)) {
-            return false;
-        }
-        
-        
-        if (!ground.getType().isSolid()) {
-            return false;
-        }
-        
-        
-        if (isDangerousBlock(ground)) {
-            return false;
+
+
+        return pack(0, blocks.getHighestBlockY(x, z) + 1, 0);
+    }
+
+    private static long pack(int dx, int y, int dz) {
+        return ((long) y << 16) | ((dx + 128) << 8) | (dz + 128);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed >> 16);
+    }
+
+    static int unpackDx(long packed) {
+        return (int) ((packed >> 8) & 0xFF) - 128;
+    }
+
+    static int unpackDz(long packed) {
+        return (int) (packed & 0xFF) - 128;
+    }
+
+
+    private static void loadColumn(BlockSource blocks, int x, int z, int lo, int hi, int[] column) {
+        for (int y = lo - 1; y <= hi + 1; y++) {
+            column[y - lo + 1] = blocks.getType(x, y, z).ordinal();
         }
-        
-        
-        int fallDistance = calculateFallDistance(loc);
-        if (fallDistance > MAX_FALL_DISTANCE) {
-            return false;
+    }
+
+    private static boolean isSafeAt(int[] column, int lo, int hi, int y) {
+        if (y < lo || y > hi) return false;
+        int i = y - lo + 1;
+        return isSafe(column[i], column[i + 1], column[i - 1]);
+    }
+
+
+    private static boolean isSafe(int feet, int head, int ground) {
+        return PASSABLE.get(feet) && PASSABLE.get(head) && SOLID.get(ground) && !DANGEROUS.get(ground);
+    }
+
+
+    private static final BitSet PASSABLE = new BitSet();
+    private static final BitSet SOLID = new BitSet();
+    private static final BitSet DANGEROUS = new BitSet();
+
+    static {
+        for (Material type : Material.values()) {
+            if (type.isLegacy()) continue;
+            int i = type.ordinal();
+            if (isPassable(type)) PASSABLE.set(i);
+            if (type.isSolid()) SOLID.set(i);
+            if (isDangerousBlock(type)) DANGEROUS.set(i);
         }
-        
-        return true;
-    }
-    
-    
-    private static boolean isPassable(Block block) {
-        Material type = block.getType();
-        return type.isAir() || 
-               !type.isSolid() || 
+    }
+
+
+    private static boolean isPassable(Material type) {
+        return type.isAir() ||
+               !type.isSolid() ||
                type == Material.WATER ||
                type == Material.LAVA;
     }
-    
-    
-    private static boolean isDangerousBlock(Block block) {
-        Material type = block.getType();
+
+
+    private static boolean isDangerousBlock(Material type) {
         return type == Material.LAVA ||
                type == Material.FIRE ||
                type == Material.MAGMA_BLOCK ||
                type == Material.CACTUS ||
                type == Material.SWEET_BERRY_BUSH;
     }
-    
-    
-    private static int calculateFallDistance(Location loc) {
-        World world = loc.getWorld();
-        int x = loc.getBlockX();
-        int y = loc.getBlockY();
-        int z = loc.getBlockZ();
-        
-        for (int dy = 0; dy <= MAX_FALL_DISTANCE + 5; dy++) {
-            int checkY = y - dy - 1;
-            if (checkY < 0) return MAX_FALL_DISTANCE + 1;
-            
-            Block block = world.getBlockAt(x, checkY, z);
-            if (block.getType().isSolid()) {
-                return dy;
-            }
-        }
-        
-        return MAX_FALL_DISTANCE + 1;
-    }
 }
-
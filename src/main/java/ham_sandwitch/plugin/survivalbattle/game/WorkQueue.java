@@ -0,0 +1,195 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Counter;
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class WorkQueue {
+
+    public enum Priority {
+        CRITICAL, NORMAL, COSMETIC
+    }
+
+    private static WorkQueue instance;
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final EnumMap<Priority, Queue<Runnable>> queues = new EnumMap<>(Priority.class);
+    private final AtomicInteger depth = new AtomicInteger();
+    private TaskHandle drainTask;
+    private final Histogram drainCost;
+    private final Counter tasksRun;
+    private final Counter overrunCount;
+
+    private volatile long executed = 0L;
+    private volatile long overruns = 0L;
+    private volatile long lastDrainNanos = 0L;
+    private volatile long maxDrainNanos = 0L;
+    private volatile int maxDepth = 0;
+
+    private WorkQueue(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        for (Priority p : Priority.values()) queues.put(p, new ConcurrentLinkedQueue<>());
+
+        MetricsRegistry metrics = MetricsRegistry.get();
+        drainCost = metrics.histogram("survivalbattle_work_queue_drain_seconds", "Time spent draining the work queue per tick");
+        tasksRun = metrics.counter("survivalbattle_work_queue_tasks_total", "Tasks executed by the work queue");
+        overrunCount = metrics.counter("survivalbattle_work_queue_overruns_total", "Ticks where draining exceeded the budget");
+        for (Priority p : Priority.values()) {
+            metrics.gauge("survivalbattle_work_queue_depth", "Tasks waiting in the work queue", () -> getDepth(p), "priority", p.name().toLowerCase());
+        }
+    }
+
+
+    public static synchronized WorkQueue get(JavaPlugin plugin) {
+        if (instance == null) {
+            instance = new WorkQueue(plugin);
+            instance.drainTask = instance.scheduler.runGlobalTimer(instance::drain, 1L, 1L);
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance == null) return;
+        if (instance.drainTask != null) instance.drainTask.cancel();
+        for (Queue<Runnable> q : instance.queues.values()) q.clear();
+        instance.depth.set(0);
+        instance = null;
+    }
+
+
+    public void submit(Priority priority, Runnable task) {
+        if (task == null) return;
+        queues.get(priority).add(task);
+        int now = depth.incrementAndGet();
+        if (now > maxDepth) maxDepth = now;
+    }
+
+
+    public void submit(Priority priority, Player player, Consumer<Player> task) {
+        submit(priority, player, task, () -> { });
+    }
+
+    public void submit(Priority priority, Player player, Consumer<Player> task, Runnable retired) {
+        if (player == null || task == null) return;
+        submit(priority, () -> dispatch(player, () -> task.accept(player), retired));
+    }
+
+
+    public CompletableFuture<Void> submitAll(Priority priority, Collection<? extends Player> players, Consumer<Player> task) {
+        if (players.isEmpty()) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(players.size());
+        Runnable countDown = () -> {
+            if (remaining.decrementAndGet() == 0) done.complete(null);
+        };
+        for (Player p : players) {
+            submit(priority, () -> dispatch(p, () -> {
+                try {
+                    task.accept(p);
+                } finally {
+                    countDown.run();
+                }
+            }, countDown));
+        }
+        return done;
+    }
+
+    private void dispatch(Player player, Runnable task, Runnable retired) {
+        if (!player.isOnline()) {
+            retired.run();
+        } else if (scheduler.isOwnedByCurrentThread(player)) {
+            task.run();
+        } else {
+            scheduler.runForEntity(player, task, retired);
+        }
+    }
+
+
+    private void drain() {
+        if (depth.get() == 0) return;
+        long start = System.nanoTime();
+        long budget = Math.max(1, GameConfig.get().workQueueBudgetMillis()) * 1_000_000L;
+        long deadline = start + budget;
+        int ran = 0;
+        Runnable task;
+        while ((ran == 0 || System.nanoTime() < deadline) && (task = poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Queued task failed: " + e.getMessage());
+            }
+            ran++;
+        }
+        long elapsed = System.nanoTime() - start;
+        executed += ran;
+        lastDrainNanos = elapsed;
+        if (elapsed > maxDrainNanos) maxDrainNanos = elapsed;
+        if (elapsed > budget) {
+            overruns++;
+            overrunCount.inc();
+        }
+        tasksRun.inc(ran);
+        drainCost.observeNanos(elapsed);
+    }
+
+    private Runnable poll() {
+        for (Priority p : Priority.values()) {
+            Runnable task = queues.get(p).poll();
+            if (task != null) {
+                depth.decrementAndGet();
+                return task;
+            }
+        }
+        return null;
+    }
+
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public int getDepth(Priority priority) {
+        return queues.get(priority).size();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getLastDrainNanos() {
+        return lastDrainNanos;
+    }
+
+    public long getMaxDrainNanos() {
+        return maxDrainNanos;
+    }
+
+    public String getSummary() {
+        return String.format("depth %d (critical %d, normal %d, cosmetic %d, peak %d), executed %d, overruns %d, last %.2fms, max %.2fms",
+                getDepth(), getDepth(Priority.CRITICAL), getDepth(Priority.NORMAL), getDepth(Priority.COSMETIC), maxDepth,
+                executed, overruns, lastDrainNanos / 1_000_000.0, maxDrainNanos / 1_000_000.0);
+    }
+}
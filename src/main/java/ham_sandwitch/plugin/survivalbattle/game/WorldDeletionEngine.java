@@ -0,0 +1,326 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.metrics.Counter;
+import ham_sandwitch.plugin.survivalbattle.metrics.Histogram;
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
+public class WorldDeletionEngine {
+
+    private static final int FILES_PER_BATCH = 256;
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final Path queueFile;
+    private final Set<String> pending = new LinkedHashSet<>();
+    private final AtomicLong totalFilesDeleted = new AtomicLong();
+    private final AtomicLong totalBytesFreed = new AtomicLong();
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private ExecutorService executor;
+    private final Histogram deleteDuration = MetricsRegistry.get().histogram("survivalbattle_world_folder_delete_seconds", "Time to delete a battle world folder");
+    private final Counter bytesDeleted = MetricsRegistry.get().counter("survivalbattle_world_folder_deleted_bytes_total", "Bytes freed by world folder deletion");
+
+    public WorldDeletionEngine(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.queueFile = new File(plugin.getDataFolder(), "pending-deletions.txt").toPath();
+        MetricsRegistry.get().gauge("survivalbattle_world_deletions_pending", "World folders waiting to be deleted", this::getPendingCount);
+    }
+
+    public static class DeletionResult {
+        public final int files;
+        public final long bytes;
+        public final long millis;
+        public final int failures;
+
+        public DeletionResult(int files, long bytes, long millis, int failures) {
+            this.files = files;
+            this.bytes = bytes;
+            this.millis = millis;
+            this.failures = failures;
+        }
+    }
+
+
+    public synchronized void start() {
+        if (executor == null || executor.isShutdown()) {
+            int threads = Math.max(1, plugin.getConfig().getInt("world_deletion.threads", 2));
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "SurvivalBattle-WorldDelete-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        List<String> restored = loadQueue();
+        if (!restored.isEmpty()) {
+            plugin.getLogger().info("Resuming " + restored.size() + " pending world folder deletion(s) from previous run.");
+            for (String path : restored) {
+                File folder = new File(path);
+                submit(folder.toPath(), folder.getName(), 1);
+            }
+        }
+    }
+
+    public void shutdown() {
+        ExecutorService ex;
+        synchronized (this) {
+            ex = executor;
+            executor = null;
+        }
+        if (ex != null) {
+            ex.shutdownNow();
+        }
+    }
+
+
+    public void enqueue(File folder, String worldName) {
+        if (folder == null) {
+            plugin.getLogger().info("No world folder to delete: " + worldName);
+            return;
+        }
+        if (!isInsideWorldContainer(folder.toPath())) {
+            plugin.getLogger().warning("Refusing to delete folder outside the world container: " + folder);
+            return;
+        }
+        synchronized (pending) {
+            if (!pending.add(folder.getAbsolutePath())) return;
+        }
+        persistQueue();
+        if (!plugin.isEnabled()) {
+            deleteNow(folder.toPath(), worldName);
+            return;
+        }
+        submit(folder.toPath(), worldName, 1);
+    }
+
+    
+    private void deleteNow(Path folder, String worldName) {
+        try {
+            DeletionResult result = deleteTree(folder, Runnable::run).join();
+            if (result.failures == 0 && !Files.exists(folder)) {
+                complete(folder);
+                plugin.getLogger().info("World folder deleted during shutdown: " + worldName + " (" + result.files + " files, " + result.millis + "ms)");
+                return;
+            }
+            plugin.getLogger().warning("World folder " + worldName + " was only partly deleted during shutdown (kept in queue for next start)");
+        } catch (Exception e) {
+            plugin.getLogger().warning("World folder deletion failed during shutdown for " + worldName + ": " + e.getMessage() + " (kept in queue for next start)");
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public int getInProgressCount() {
+        return inProgress.get();
+    }
+
+    public long getTotalFilesDeleted() {
+        return totalFilesDeleted.get();
+    }
+
+    public long getTotalBytesFreed() {
+        return totalBytesFreed.get();
+    }
+
+
+    private void submit(Path folder, String worldName, int attempt) {
+        ExecutorService ex;
+        synchronized (this) {
+            ex = executor;
+        }
+        if (ex == null) return;
+
+        long delayTicks = attempt <= 1 ? 40L : Math.min(1200L, 40L << (attempt - 1));
+        scheduler.runGlobalLater(() -> {
+            if (Bukkit.getWorld(worldName) != null) {
+                plugin.getLogger().warning("World " + worldName + " is still loaded; postponing folder deletion.");
+                retryOrGiveUp(folder, worldName, attempt);
+                return;
+            }
+            inProgress.incrementAndGet();
+            CompletableFuture.supplyAsync(() -> deleteTree(folder, ex), ex).thenCompose(Function.identity()).whenComplete((result, error) -> {
+                inProgress.decrementAndGet();
+                if (error == null && result.failures == 0 && !Files.exists(folder)) {
+                    complete(folder);
+                    totalFilesDeleted.addAndGet(result.files);
+                    totalBytesFreed.addAndGet(result.bytes);
+                    deleteDuration.observe(result.millis / 1000.0);
+                    bytesDeleted.inc(result.bytes);
+                    plugin.getLogger().info("World folder deleted: " + worldName + " (" + result.files + " files, "
+                            + (result.bytes / (1024 * 1024)) + "MB freed, " + result.millis + "ms)");
+                    return;
+                }
+                if (error != null) {
+                    plugin.getLogger().warning("World folder deletion failed for " + worldName + ": " + error.getMessage());
+                } else {
+                    totalFilesDeleted.addAndGet(result.files);
+                    totalBytesFreed.addAndGet(result.bytes);
+                }
+                retryOrGiveUp(folder, worldName, attempt);
+            });
+        }, delayTicks);
+    }
+
+    private void retryOrGiveUp(Path folder, String worldName, int attempt) {
+        int maxAttempts = Math.max(1, plugin.getConfig().getInt("world_deletion.max_attempts", 5));
+        if (attempt >= maxAttempts) {
+            plugin.getLogger().warning("Failed to delete world folder after " + attempt + " attempts: " + worldName + " (kept in queue for next start)");
+            return;
+        }
+        submit(folder, worldName, attempt + 1);
+    }
+
+
+    private CompletableFuture<DeletionResult> deleteTree(Path root, Executor ex) {
+        long start = System.nanoTime();
+        if (!Files.exists(root)) {
+            return CompletableFuture.completedFuture(new DeletionResult(0, 0L, 0L, 0));
+        }
+
+        List<Path> directories = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    files.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    files.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    directories.add(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        AtomicInteger deletedFiles = new AtomicInteger();
+        AtomicLong freedBytes = new AtomicLong();
+        AtomicInteger failures = new AtomicInteger();
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int i = 0; i < files.size(); i += FILES_PER_BATCH) {
+            List<Path> batch = files.subList(i, Math.min(files.size(), i + FILES_PER_BATCH));
+            batches.add(CompletableFuture.runAsync(() -> {
+                for (Path file : batch) {
+                    try {
+                        long size = Files.size(file);
+                        Files.delete(file);
+                        deletedFiles.incrementAndGet();
+                        freedBytes.addAndGet(size);
+                    } catch (NoSuchFileException ignored) {
+                    } catch (IOException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }, ex));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(v -> {
+            for (Path dir : directories) {
+                try {
+                    Files.deleteIfExists(dir);
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            return new DeletionResult(deletedFiles.get(), freedBytes.get(), millis, failures.get());
+        });
+    }
+
+    private void complete(Path folder) {
+        synchronized (pending) {
+            pending.remove(folder.toFile().getAbsolutePath());
+        }
+        persistQueue();
+    }
+
+    private boolean isInsideWorldContainer(Path folder) {
+        Path container = Bukkit.getWorldContainer().toPath().toAbsolutePath().normalize();
+        Path target = folder.toAbsolutePath().normalize();
+        return target.startsWith(container) && !target.equals(container);
+    }
+
+
+    private List<String> loadQueue() {
+        List<String> result = new ArrayList<>();
+        if (!Files.isRegularFile(queueFile)) return result;
+        try {
+            for (String line : Files.readAllLines(queueFile, StandardCharsets.UTF_8)) {
+                String path = line.trim();
+                if (path.isEmpty()) continue;
+                if (!isInsideWorldContainer(new File(path).toPath())) {
+                    plugin.getLogger().warning("Ignoring queued deletion outside the world container: " + path);
+                    continue;
+                }
+                synchronized (pending) {
+                    if (pending.add(path)) result.add(path);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read pending deletion queue: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private synchronized void persistQueue() {
+        List<String> lines;
+        synchronized (pending) {
+            lines = new ArrayList<>(pending);
+        }
+        try {
+            Files.createDirectories(queueFile.getParent());
+            Path tmp = queueFile.resolveSibling(queueFile.getFileName() + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, queueFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, queueFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to persist pending deletion queue: " + e.getMessage());
+        }
+    }
+}
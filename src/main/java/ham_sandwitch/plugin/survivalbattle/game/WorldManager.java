@@ -1,11 +1,14 @@
 package ham_sandwitch.plugin.survivalbattle.game;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Random;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Difficulty;
@@ -17,10 +20,28 @@ import org.bukkit.WorldCreator;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import ham_sandwitch.plugin.survivalbattle.metrics.MetricsRegistry;
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+
 public class WorldManager {
     
     private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final int arenaId;
+    private final boolean ownsSharedServices;
+    private final WorldPool worldPool;
+    private final WorldTemplateManager templateManager;
+    private final WorldDeletionEngine deletionEngine;
+    private long lastWorldNameMillis = 0L;
+    private int savedUnloads = 0;
+    private long savedUnloadMicros = 0L;
+    private int discardedUnloads = 0;
+    private long discardedUnloadMicros = 0L;
     private World battleWorld;
+    private ChunkPregenerator pregenerator;
+    private SpawnCandidateIndex spawnIndex;
+    private BlockChangeJournal activeJournal;
+    private BlockChangeJournal rollingBackJournal;
     
     
     private static final int COLLECTION_BORDER_SIZE = 100000;
@@ -29,7 +50,25 @@ public class WorldManager {
     private static final double BORDER_DAMAGE = 0.5;
     
     public WorldManager(JavaPlugin plugin) {
+        this(plugin, 0, null);
+    }
+
+    
+    public WorldManager(JavaPlugin plugin, int arenaId, WorldManager shared) {
         this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.arenaId = arenaId;
+        this.ownsSharedServices = shared == null;
+        if (shared == null) {
+            this.templateManager = new WorldTemplateManager(plugin);
+            this.deletionEngine = new WorldDeletionEngine(plugin);
+            this.deletionEngine.start();
+            this.worldPool = new WorldPool(plugin, this);
+        } else {
+            this.templateManager = shared.templateManager;
+            this.deletionEngine = shared.deletionEngine;
+            this.worldPool = shared.worldPool;
+        }
     }
 
     
@@ -45,26 +84,223 @@ public class WorldManager {
     }
     
     
-    public boolean createBattleWorld() {
+    public CompletableFuture<Boolean> createBattleWorld() {
         deleteBattleWorld();
+        long start = System.nanoTime();
         
-        WorldCreator wc = new WorldCreator("survivalbattle_battle_" + System.currentTimeMillis());
-        wc.environment(World.Environment.NORMAL);
-        wc.seed(new Random().nextLong());
-        this.battleWorld = wc.createWorld();
+        if (isRollbackMode()) {
+            return CompletableFuture.completedFuture(recordCreate("rollback", openRollbackWorld(), start));
+        }
         
-        if (this.battleWorld == null) {
-            return false;
+        World pooled = worldPool.take();
+        if (pooled != null) {
+            return CompletableFuture.completedFuture(installBattleWorld(pooled, "pool", start));
         }
+
         
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        generateWorldAsync(world -> created.complete(installBattleWorld(world, "generate", start)));
+        return created;
+    }
+
+    private boolean installBattleWorld(World world, String source, long startNanos) {
+        this.battleWorld = world;
+        if (world == null) {
+            return recordCreate(source, false, startNanos);
+        }
+        setupBattleWorld();
+        return recordCreate(source, true, startNanos);
+    }
+
+    private boolean recordCreate(String source, boolean created, long startNanos) {
+        MetricsRegistry metrics = MetricsRegistry.get();
+        if (created) {
+            metrics.histogram("survivalbattle_world_create_seconds", "Time to provide a ready battle world", "source", source).observeSince(startNanos);
+        } else {
+            metrics.counter("survivalbattle_world_create_failures_total", "Battle world creation failures", "source", source).inc();
+        }
+        return created;
+    }
+
+    
+    public boolean isRollbackMode() {
+        return "rollback".equalsIgnoreCase(plugin.getConfig().getString("world_reset.mode", "regenerate"));
+    }
+
+    public boolean isRollbackInProgress() {
+        return rollingBackJournal != null && rollingBackJournal.isReplaying();
+    }
+
+    private boolean openRollbackWorld() {
+        if (isRollbackInProgress()) {
+            plugin.getLogger().warning("Previous match rollback is still running; cannot start a new match yet.");
+            return false;
+        }
+
+        String name = plugin.getConfig().getString("world_reset.rollback_world", "survivalbattle_arena");
+        if (arenaId > 0) name = name + "_" + arenaId;
+        World world = Bukkit.getWorld(name);
+        if (world == null) {
+            WorldCreator wc = new WorldCreator(name);
+            wc.environment(World.Environment.NORMAL);
+            world = wc.createWorld();
+        }
+        if (world == null) {
+            return false;
+        }
+        world.setAutoSave(true);
+        this.battleWorld = world;
         setupBattleWorld();
+
+        int maxEntries = plugin.getConfig().getInt("world_reset.max_entries_in_memory", 500000);
+        Path spill = new File(plugin.getDataFolder(), "journal-" + name + ".bin").toPath();
+        this.activeJournal = new BlockChangeJournal(plugin, world, spill, maxEntries);
+        plugin.getLogger().info("Block change journal started for " + name);
         return true;
     }
+
+    private void closeRollbackWorld() {
+        World world = battleWorld;
+        stopPregeneration();
+        closeSpawnIndex();
+        Location fallback = Bukkit.getWorlds().get(0).getSpawnLocation();
+        for (Player p : world.getPlayers()) {
+            scheduler.runNowOrForEntity(p, () -> scheduler.teleport(p, fallback));
+        }
+
+        BlockChangeJournal journal = activeJournal;
+        activeJournal = null;
+        battleWorld = null;
+        pregenerator = null;
+        if (journal == null) return;
+
+        rollingBackJournal = journal;
+        int budget = plugin.getConfig().getInt("world_reset.tick_budget_ms", 5);
+        journal.startReplay(budget, () -> {
+            if (rollingBackJournal == journal) rollingBackJournal = null;
+            world.save();
+        });
+    }
+
+    public BlockChangeJournal getActiveJournal() {
+        return activeJournal;
+    }
+
+    
+    void generateWorldAsync(Consumer<World> callback) {
+        if (!templateManager.isEnabled()) {
+            callback.accept(generateFreshWorld(newBattleWorldName()));
+            return;
+        }
+
+        String name = newBattleWorldName();
+        String template = templateManager.nextTemplate();
+        scheduler.runAsync(() -> {
+            try {
+                WorldTemplateManager.CloneResult result = templateManager.cloneTemplate(template, name);
+                scheduler.runGlobal(() -> {
+                    World cloned = loadClonedWorld(name, result);
+                    callback.accept(cloned != null ? cloned : generateFreshWorld(newBattleWorldName()));
+                });
+            } catch (Exception e) {
+                scheduler.runGlobal(() -> {
+                    plugin.getLogger().warning("Failed to clone template '" + template + "': " + e.getMessage() + "; generating a fresh world instead.");
+                    deletionEngine.enqueue(new File(Bukkit.getWorldContainer(), name), name);
+                    callback.accept(generateFreshWorld(newBattleWorldName()));
+                });
+            }
+        });
+    }
+
+    boolean canCloneOffThread() {
+        return templateManager.isEnabled();
+    }
+
+    World generateFreshWorld() {
+        return generateFreshWorld(newBattleWorldName());
+    }
+
+    private String newBattleWorldName() {
+        long now = System.currentTimeMillis();
+        if (now <= lastWorldNameMillis) now = lastWorldNameMillis + 1;
+        lastWorldNameMillis = now;
+        return "survivalbattle_battle_" + (arenaId > 0 ? arenaId + "_" : "") + now;
+    }
+
+    private World generateFreshWorld(String name) {
+        long start = System.nanoTime();
+        WorldCreator wc = new WorldCreator(name);
+        wc.environment(World.Environment.NORMAL);
+        wc.seed(new Random().nextLong());
+        World world = wc.createWorld();
+        if (world != null) {
+            applyTransientWorldSettings(world);
+            plugin.getLogger().info("Battle world generated: " + name + " (" + (System.nanoTime() - start) / 1_000_000L + "ms)");
+        }
+        return world;
+    }
+
+    private boolean isDiscardOnUnload() {
+        return plugin.getConfig().getBoolean("world_teardown.discard_on_unload", true);
+    }
+
+    private void applyTransientWorldSettings(World world) {
+        if (isDiscardOnUnload()) {
+            world.setAutoSave(false);
+        }
+    }
+
+    private World loadClonedWorld(String name, WorldTemplateManager.CloneResult result) {
+        long start = System.nanoTime();
+        WorldCreator wc = new WorldCreator(name);
+        wc.environment(World.Environment.NORMAL);
+        World world = wc.createWorld();
+        if (world != null) {
+            applyTransientWorldSettings(world);
+            long loadMs = (System.nanoTime() - start) / 1_000_000L;
+            plugin.getLogger().info("Battle world cloned from template '" + result.template + "': " + name
+                    + " (copy " + result.millis + "ms, " + result.files + " files, " + (result.bytes / 1024) + "KB; load " + loadMs + "ms)");
+        }
+        return world;
+    }
+
+    
+    public void benchmarkTemplate(String template, Consumer<String> report) {
+        String clonedName = newBattleWorldName();
+        scheduler.runAsync(() -> {
+            WorldTemplateManager.CloneResult result;
+            try {
+                result = templateManager.cloneTemplate(template, clonedName);
+            } catch (Exception e) {
+                scheduler.runGlobal(() -> report.accept("Template copy failed: " + e.getMessage()));
+                deletionEngine.enqueue(new File(Bukkit.getWorldContainer(), clonedName), clonedName);
+                return;
+            }
+            scheduler.runGlobal(() -> {
+                long loadStart = System.nanoTime();
+                World cloned = loadClonedWorld(clonedName, result);
+                long loadMs = (System.nanoTime() - loadStart) / 1_000_000L;
+
+                long genStart = System.nanoTime();
+                World generated = generateFreshWorld(newBattleWorldName());
+                long genMs = (System.nanoTime() - genStart) / 1_000_000L;
+
+                report.accept("Template '" + template + "': copy " + result.millis + "ms (async) + load " + loadMs + "ms (main thread)"
+                        + " / fresh generation " + genMs + "ms (main thread)");
+
+                if (cloned != null) unloadAndDelete(cloned);
+                if (generated != null) unloadAndDelete(generated);
+            });
+        });
+    }
     
     
     private void setupBattleWorld() {
         if (battleWorld == null) return;
         
+        if (activeJournal == null && !isRollbackMode()) {
+            applyTransientWorldSettings(battleWorld);
+        }
         battleWorld.setTime(0);
         battleWorld.setDifficulty(Difficulty.NORMAL);
         
@@ -87,6 +323,12 @@ public class WorldManager {
         
         plugin.getLogger().info("Battle world created: " + battleWorld.getName());
 
+        closeSpawnIndex();
+        if (plugin.getConfig().getBoolean("spawn_index.enabled", true)) {
+            spawnIndex = new SpawnCandidateIndex(plugin, battleWorld);
+            spawnIndex.start();
+        }
+
         
         try {
             clearWorldGuardRegions(battleWorld);
@@ -206,6 +448,8 @@ public class WorldManager {
     
     public Location findRandomLocationInBorder(int tries, int minY) {
         if (battleWorld == null) return null;
+        Location indexed = spawnIndex != null ? spawnIndex.findInBorder(new Random()) : null;
+        if (indexed != null) return indexed;
         WorldBorder border = battleWorld.getWorldBorder();
         double half = Math.max(1.0, border.getSize() / 2.0 - 5.0);
         Random rnd = new Random();
@@ -222,6 +466,40 @@ public class WorldManager {
     }
     
     
+    public CompletableFuture<Location> findRandomLocationInBorderAsync(int tries, int minY) {
+        if (battleWorld == null) return CompletableFuture.completedFuture(null);
+        Location indexed = spawnIndex != null ? spawnIndex.findInBorder(new Random()) : null;
+        if (indexed != null) return CompletableFuture.completedFuture(indexed);
+        World world = battleWorld;
+        WorldBorder border = world.getWorldBorder();
+        double half = Math.max(1.0, border.getSize() / 2.0 - 5.0);
+        return tryRandomLocation(world, border.getCenter().getX(), border.getCenter().getZ(), half, minY, Math.max(1, tries), new Random());
+    }
+
+    public CompletableFuture<Location> findRandomLocationInPvpBorderAsync(int tries, int minY) {
+        if (battleWorld == null) return CompletableFuture.completedFuture(null);
+        double size = plugin.getConfig().getDouble("game.pvp_initial_border", DEFAULT_PVP_INITIAL_BORDER);
+        double half = Math.max(1.0, size / 2.0 - 5.0);
+        Location indexed = spawnIndex != null ? spawnIndex.find(new Random(), 0.0, 0.0, half, null, 0.0) : null;
+        if (indexed != null) return CompletableFuture.completedFuture(indexed);
+        return tryRandomLocation(battleWorld, 0.0, 0.0, half, minY, Math.max(1, tries), new Random());
+    }
+
+    private CompletableFuture<Location> tryRandomLocation(World world, double centerX, double centerZ, double half, int minY, int remaining, Random rnd) {
+        double angle = rnd.nextDouble() * Math.PI * 2.0;
+        double r = rnd.nextDouble() * half;
+        int x = (int) Math.round(centerX + Math.cos(angle) * r);
+        int z = (int) Math.round(centerZ + Math.sin(angle) * r);
+        Location guess = new Location(world, x + 0.5, Math.max(minY, 90), z + 0.5);
+        return TeleportUtil.findSafeLocationAsync(plugin, guess).thenCompose(safe -> {
+            if (safe != null) return CompletableFuture.completedFuture(safe);
+            if (remaining > 1) return tryRandomLocation(world, centerX, centerZ, half, minY, remaining - 1, rnd);
+            Location spawn = world.getSpawnLocation().clone().add(1.0, 1.5, 1.0);
+            return TeleportUtil.findSafeLocationAsync(plugin, spawn);
+        });
+    }
+    
+    
     public Location getBattleSpawnLocation() {
         if (battleWorld == null) return null;
         
@@ -236,6 +514,10 @@ public class WorldManager {
         if (battleWorld == null) return null;
         
         Random random = new Random();
+        if (spawnIndex != null) {
+            Location indexed = spawnIndex.find(random, 0.0, 0.0, 50.0, null, 0.0);
+            if (indexed != null) return indexed;
+        }
         int maxAttempts = 50;
         
         for (int i = 0; i < maxAttempts; i++) {
@@ -261,93 +543,109 @@ public class WorldManager {
     public void deleteBattleWorld() {
         if (battleWorld == null) return;
         
-        String worldName = battleWorld.getName();
-        for (Player p : battleWorld.getPlayers()) {
-            p.teleport(Bukkit.getWorlds().get(0).getSpawnLocation());
+        if (activeJournal != null && battleWorld.equals(activeJournal.getWorld())) {
+            closeRollbackWorld();
+            return;
         }
-
         
-        File worldFolder = battleWorld.getWorldFolder();
-
+        stopPregeneration();
+        closeSpawnIndex();
         
-        boolean unloaded = Bukkit.unloadWorld(battleWorld, true);
-        if (unloaded) {
+        if (unloadAndDelete(battleWorld)) {
             
             battleWorld = null;
+            pregenerator = null;
+        }
+    }
 
+    
+    boolean unloadAndDelete(World world) {
+        String worldName = world.getName();
+        for (Player p : world.getPlayers()) {
+            scheduler.teleport(p, Bukkit.getWorlds().get(0).getSpawnLocation());
+        }
+
+        
+        File worldFolder = world.getWorldFolder();
+
+        
+        boolean save = !isDiscardOnUnload();
+        int loadedChunks = world.getLoadedChunks().length;
+        long unloadStart = System.nanoTime();
+        boolean unloaded = Bukkit.unloadWorld(world, save);
+        long unloadMicros = (System.nanoTime() - unloadStart) / 1_000L;
+        if (unloaded) {
+            recordTeardown(save, unloadMicros);
+            MetricsRegistry.get().histogram("survivalbattle_world_unload_seconds", "Main-thread time to unload a battle world",
+                    "save", String.valueOf(save)).observe(unloadMicros / 1_000_000.0);
+            plugin.getLogger().info("World unloaded: " + worldName + " (save=" + save + ", " + loadedChunks + " loaded chunks, "
+                    + (unloadMicros / 1000.0) + "ms on main thread)");
             
             final File folderToDelete = worldFolder;
             
-            scheduleFolderDeletion(folderToDelete, 3, 40L, worldName);
+            deletionEngine.enqueue(folderToDelete, worldName);
         } else {
             plugin.getLogger().warning("Failed to unload world: " + worldName);
         }
+        return unloaded;
     }
     
-    private boolean deleteFolderAsync(File folder) {
-        if (folder == null) return true;
-        boolean allDeleted = true;
-
-        File[] files = folder.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    boolean child = deleteFolderAsync(file);
-                    if (!child) allDeleted = false;
-                } else {
-                    try {
-                        if (!file.delete()) {
-                            allDeleted = false;
-                        }
-                    } catch (Exception e) {
-                        allDeleted = false;
-                    }
-                }
-            }
+    private void recordTeardown(boolean saved, long unloadMicros) {
+        if (saved) {
+            savedUnloads++;
+            savedUnloadMicros += unloadMicros;
+        } else {
+            discardedUnloads++;
+            discardedUnloadMicros += unloadMicros;
         }
+    }
 
-        try {
-            if (!folder.delete()) {
-                allDeleted = false;
-            }
-        } catch (Exception e) {
-            allDeleted = false;
-        }
+    
+    public String getTeardownSummary() {
+        double savedAvg = savedUnloads == 0 ? 0.0 : savedUnloadMicros / 1000.0 / savedUnloads;
+        double discardedAvg = discardedUnloads == 0 ? 0.0 : discardedUnloadMicros / 1000.0 / discardedUnloads;
+        return String.format("unload avg: save=%.1fms (%d), discard=%.1fms (%d)", savedAvg, savedUnloads, discardedAvg, discardedUnloads);
+    }
 
-        return allDeleted;
+    public void startPregeneration() {
+        stopPregeneration();
+        if (battleWorld == null) return;
+        if (!plugin.getConfig().getBoolean("pregen.enabled", true)) return;
+
+        Location spawn = battleWorld.getSpawnLocation();
+        double pvpBorder = plugin.getConfig().getDouble("game.pvp_initial_border", DEFAULT_PVP_INITIAL_BORDER);
+        long[] keys = ChunkPregenerator.planArea(
+                spawn.getBlockX(), spawn.getBlockZ(),
+                plugin.getConfig().getInt("pregen.spawn_radius_chunks", 6),
+                0, 0, pvpBorder);
+
+        pregenerator = new ChunkPregenerator(plugin, battleWorld, keys,
+                plugin.getConfig().getInt("pregen.chunks_per_tick", 4),
+                plugin.getConfig().getInt("pregen.max_in_flight", 16));
+        pregenerator.start();
     }
 
-    
-    private void scheduleFolderDeletion(File folder, int attempts, long delayTicks, String worldName) {
-        if (folder == null) {
-            Bukkit.getScheduler().runTask(plugin, () -> plugin.getLogger().info("No world folder to delete: " + worldName));
-            return;
+    public void stopPregeneration() {
+        if (pregenerator != null) {
+            pregenerator.cancel();
         }
+    }
 
-        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, new Runnable() {
-            int remaining = attempts;
-
-            @Override
-            public void run() {
-                boolean ok = deleteFolderAsync(folder);
-                if (ok) {
-                    Bukkit.getScheduler().runTask(plugin, () -> plugin.getLogger().info("World folder deleted: " + worldName));
-                    return;
-                }
+    public ChunkPregenerator getPregenerator() {
+        return pregenerator;
+    }
 
-                remaining--;
-                if (remaining <= 0) {
-                    Bukkit.getScheduler().runTask(plugin, () -> plugin.getLogger().warning("Failed to delete world folder after retries: " + worldName));
-                    return;
-                }
+    public SpawnCandidateIndex getSpawnIndex() {
+        return spawnIndex;
+    }
 
-                
-                long nextDelay = Math.max(20L, delayTicks * 2);
-                Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, this, nextDelay);
-            }
-        }, delayTicks);
+    private void closeSpawnIndex() {
+        if (spawnIndex != null) {
+            spawnIndex.close();
+            spawnIndex = null;
+        }
     }
-    
+
     public World getBattleWorld() {
         return battleWorld;
     }
@@ -355,5 +653,33 @@ public class WorldManager {
     public boolean hasBattleWorld() {
         return battleWorld != null;
     }
+
+    public WorldPool getWorldPool() {
+        return worldPool;
+    }
+
+    public WorldTemplateManager getTemplateManager() {
+        return templateManager;
+    }
+
+    public WorldDeletionEngine getDeletionEngine() {
+        return deletionEngine;
+    }
+
+    
+    public void shutdown() {
+        if (activeJournal != null && battleWorld != null) {
+            closeRollbackWorld();
+        }
+        if (rollingBackJournal != null) {
+            rollingBackJournal.completeReplayNow();
+            rollingBackJournal = null;
+        }
+        if (ownsSharedServices) {
+            worldPool.shutdown();
+            templateManager.shutdown();
+            deletionEngine.shutdown();
+        }
+    }
 }
-
+
@@ -0,0 +1,262 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import ham_sandwitch.plugin.survivalbattle.scheduler.PluginScheduler;
+import ham_sandwitch.plugin.survivalbattle.scheduler.TaskHandle;
+
+public class WorldPool {
+
+    private final JavaPlugin plugin;
+    private final PluginScheduler scheduler;
+    private final WorldManager worldManager;
+    private final WorkQueue workQueue;
+    private final ArrayDeque<World> readyWorlds = new ArrayDeque<>();
+
+    private BooleanSupplier idleCheck = () -> true;
+    private TaskHandle refillTask;
+    private TaskHandle healthTask;
+    private volatile long pooledDiskBytes = 0L;
+    private boolean diskCapWarned = false;
+    private boolean generating = false;
+
+    public WorldPool(JavaPlugin plugin, WorldManager worldManager) {
+        this.plugin = plugin;
+        this.scheduler = new PluginScheduler(plugin);
+        this.worldManager = worldManager;
+        this.workQueue = WorkQueue.get(plugin);
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("world_pool.enabled", false) && getTargetSize() > 0 && !worldManager.isRollbackMode();
+    }
+
+    public int getTargetSize() {
+        return Math.max(0, plugin.getConfig().getInt("world_pool.size", 1));
+    }
+
+    private long getMaxDiskBytes() {
+        return Math.max(0L, plugin.getConfig().getLong("world_pool.max_disk_mb", 2048L)) * 1024L * 1024L;
+    }
+
+    public void setIdleCheck(BooleanSupplier idleCheck) {
+        this.idleCheck = idleCheck != null ? idleCheck : () -> true;
+    }
+
+
+    public void start() {
+        stop();
+        if (!isEnabled()) return;
+
+        long refillTicks = Math.max(20L, plugin.getConfig().getLong("world_pool.refill_interval_seconds", 15L) * 20L);
+        long healthTicks = Math.max(20L, plugin.getConfig().getLong("world_pool.health_check_seconds", 60L) * 20L);
+        refillTask = scheduler.runGlobalTimer(this::refillOnce, refillTicks, refillTicks);
+        healthTask = scheduler.runGlobalTimer(this::runHealthCheck, healthTicks, healthTicks);
+        plugin.getLogger().info("World pool started (size=" + getTargetSize() + ")");
+    }
+
+    public void stop() {
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+        if (healthTask != null) {
+            healthTask.cancel();
+            healthTask = null;
+        }
+    }
+
+
+    public void shutdown() {
+        stop();
+        World w;
+        while ((w = readyWorlds.pollFirst()) != null) {
+            discard(w);
+        }
+    }
+
+
+    public World take() {
+        if (!isEnabled()) return null;
+        World w;
+        while ((w = readyWorlds.pollFirst()) != null) {
+            if (isHealthy(w)) {
+                plugin.getLogger().info("Battle world taken from pool: " + w.getName() + " (remaining " + readyWorlds.size() + "/" + getTargetSize() + ")");
+                return w;
+            }
+            plugin.getLogger().warning("Discarding unhealthy pooled world: " + w.getName());
+            discard(w);
+        }
+        return null;
+    }
+
+    public int getReadyCount() {
+        return readyWorlds.size();
+    }
+
+    public long getPooledDiskBytes() {
+        return pooledDiskBytes;
+    }
+
+
+    private void refillOnce() {
+        if (!isEnabled()) return;
+        if (generating) return;
+        if (readyWorlds.size() >= getTargetSize()) return;
+        if (!idleCheck.getAsBoolean()) return;
+
+        long maxDisk = getMaxDiskBytes();
+        if (maxDisk > 0 && pooledDiskBytes >= maxDisk) {
+            if (!diskCapWarned) {
+                plugin.getLogger().warning("World pool disk cap reached (" + (pooledDiskBytes / (1024 * 1024)) + "MB); not generating more worlds.");
+                diskCapWarned = true;
+            }
+            return;
+        }
+        diskCapWarned = false;
+
+        long start = System.nanoTime();
+        generating = true;
+        Consumer<World> onReady = w -> {
+            generating = false;
+            if (w == null) {
+                plugin.getLogger().warning("Failed to generate pooled world.");
+                return;
+            }
+            if (refillTask == null) {
+                discard(w);
+                return;
+            }
+            readyWorlds.addLast(w);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+            plugin.getLogger().info("Pooled battle world ready: " + w.getName() + " (" + readyWorlds.size() + "/" + getTargetSize() + ", " + elapsedMs + "ms)");
+            measureDiskUsage();
+        };
+        try {
+            if (worldManager.canCloneOffThread()) {
+                worldManager.generateWorldAsync(onReady);
+            } else {
+                workQueue.submit(WorkQueue.Priority.COSMETIC, () -> generateFreshQueued(onReady));
+            }
+        } catch (Exception e) {
+            generating = false;
+            plugin.getLogger().warning("Failed to generate pooled world: " + e.getMessage());
+        }
+    }
+
+    private void generateFreshQueued(Consumer<World> onReady) {
+        if (refillTask == null || !idleCheck.getAsBoolean()) {
+            generating = false;
+            return;
+        }
+        try {
+            onReady.accept(worldManager.generateFreshWorld());
+        } catch (Exception e) {
+            generating = false;
+            plugin.getLogger().warning("Failed to generate pooled world: " + e.getMessage());
+        }
+    }
+
+
+    private void runHealthCheck() {
+        Iterator<World> it = readyWorlds.iterator();
+        while (it.hasNext()) {
+            World w = it.next();
+            if (!isHealthy(w)) {
+                plugin.getLogger().warning("Pooled world failed health check, discarding: " + w.getName());
+                it.remove();
+                discard(w);
+            }
+        }
+        measureDiskUsage();
+    }
+
+    private boolean isHealthy(World w) {
+        if (w == null) return false;
+        if (Bukkit.getWorld(w.getUID()) != w) return false;
+        if (!w.getWorldFolder().isDirectory()) return false;
+        return w.getPlayers().isEmpty();
+    }
+
+    private void measureDiskUsage() {
+        Map<String, Path> folders = new LinkedHashMap<>();
+        for (World w : readyWorlds) {
+            folders.put(w.getName(), w.getWorldFolder().toPath());
+        }
+
+        scheduler.runAsync(() -> {
+            Map<String, Long> sizes = new LinkedHashMap<>();
+            long total = 0L;
+            for (Map.Entry<String, Path> e : folders.entrySet()) {
+                long size = folderSize(e.getValue());
+                sizes.put(e.getKey(), size);
+                total += size;
+            }
+            final long measured = total;
+            scheduler.runGlobal(() -> {
+                pooledDiskBytes = measured;
+                trimToDiskCap(sizes);
+            });
+        });
+    }
+
+
+    private void trimToDiskCap(Map<String, Long> sizes) {
+        long maxDisk = getMaxDiskBytes();
+        if (maxDisk <= 0 || pooledDiskBytes <= maxDisk) return;
+
+        List<World> newestFirst = new ArrayList<>(readyWorlds);
+        java.util.Collections.reverse(newestFirst);
+        for (World w : newestFirst) {
+            if (pooledDiskBytes <= maxDisk) break;
+            readyWorlds.remove(w);
+            pooledDiskBytes -= sizes.getOrDefault(w.getName(), 0L);
+            plugin.getLogger().info("Pooled world exceeds disk cap, discarding: " + w.getName());
+            discard(w);
+        }
+    }
+
+    private void discard(World w) {
+        try {
+            worldManager.unloadAndDelete(w);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to discard pooled world " + w.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private static long folderSize(Path root) {
+        final long[] total = {0L};
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    total[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ignored) {}
+        return total[0];
+    }
+}
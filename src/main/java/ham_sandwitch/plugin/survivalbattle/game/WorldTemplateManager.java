@@ -0,0 +1,171 @@
+package ham_sandwitch.plugin.survivalbattle.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+public class WorldTemplateManager {
+
+    private static final Set<String> SKIPPED_FILES = Set.of("uid.dat", "session.lock");
+    private static final Set<String> SKIPPED_DIRS = Set.of("playerdata", "stats", "advancements");
+
+    private final JavaPlugin plugin;
+    private int rotationIndex = 0;
+    private ExecutorService copyExecutor;
+
+    public WorldTemplateManager(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public static class CloneResult {
+        public final String template;
+        public final int files;
+        public final long bytes;
+        public final long millis;
+
+        public CloneResult(String template, int files, long bytes, long millis) {
+            this.template = template;
+            this.files = files;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("world_template.enabled", false) && !getTemplates().isEmpty();
+    }
+
+    public List<String> getTemplates() {
+        return plugin.getConfig().getStringList("world_template.folders");
+    }
+
+
+    public synchronized String nextTemplate() {
+        List<String> templates = getTemplates();
+        if (templates.isEmpty()) return null;
+        if (rotationIndex >= templates.size()) rotationIndex = 0;
+        return templates.get(rotationIndex++);
+    }
+
+    public boolean isValidTemplate(String folderName) {
+        File folder = new File(Bukkit.getWorldContainer(), folderName);
+        return new File(folder, "level.dat").isFile() && new File(folder, "region").isDirectory();
+    }
+
+
+    public boolean addTemplate(String folderName) {
+        List<String> templates = new ArrayList<>(getTemplates());
+        if (templates.contains(folderName)) return false;
+        templates.add(folderName);
+        plugin.getConfig().set("world_template.folders", templates);
+        plugin.saveConfig();
+        return true;
+    }
+
+    public boolean removeTemplate(String folderName) {
+        List<String> templates = new ArrayList<>(getTemplates());
+        if (!templates.remove(folderName)) return false;
+        plugin.getConfig().set("world_template.folders", templates);
+        plugin.saveConfig();
+        return true;
+    }
+
+
+    public CloneResult cloneTemplate(String template, String targetWorldName) throws IOException {
+        long start = System.nanoTime();
+        Path source = new File(Bukkit.getWorldContainer(), template).toPath();
+        Path target = new File(Bukkit.getWorldContainer(), targetWorldName).toPath();
+        if (!Files.isDirectory(source)) {
+            throw new IOException("Template folder not found: " + template);
+        }
+        if (Files.exists(target)) {
+            throw new FileAlreadyExistsException(target.toString());
+        }
+
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(source) && SKIPPED_DIRS.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!SKIPPED_FILES.contains(file.getFileName().toString())) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        AtomicInteger copied = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        ExecutorService executor = getCopyExecutor();
+        for (Path file : files) {
+            futures.add(executor.submit(() -> {
+                Path dest = target.resolve(source.relativize(file));
+                Files.copy(file, dest, StandardCopyOption.COPY_ATTRIBUTES);
+                bytes.addAndGet(Files.size(dest));
+                copied.incrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Template copy interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+        return new CloneResult(template, copied.get(), bytes.get(), millis);
+    }
+
+    private synchronized ExecutorService getCopyExecutor() {
+        if (copyExecutor == null || copyExecutor.isShutdown()) {
+            int threads = GameConfig.get().templateCopyThreads();
+            AtomicInteger counter = new AtomicInteger();
+            copyExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "SurvivalBattle-TemplateCopy-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return copyExecutor;
+    }
+
+    public synchronized void shutdown() {
+        if (copyExecutor != null) {
+            copyExecutor.shutdownNow();
+            copyExecutor = null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ham_sandwitch.plugin.survivalbattle.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter implements MetricsRegistry.Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void inc(long amount) {
+        if (amount > 0) value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public void write(StringBuilder sb, String name, String labels) {
+        MetricsRegistry.sample(sb, name, labels, null, value.sum());
+    }
+}
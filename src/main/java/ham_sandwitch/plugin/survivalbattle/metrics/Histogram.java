@@ -0,0 +1,64 @@
+package ham_sandwitch.plugin.survivalbattle.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Histogram implements MetricsRegistry.Metric {
+
+    private static final double[] BOUNDS = {
+            0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+            1, 2.5, 5, 10, 30, 60, 120, 300, 600, 1200
+    };
+    private static final String[] LE = new String[BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            LE[i] = "le=\"" + BigDecimal.valueOf(BOUNDS[i]).stripTrailingZeros().toPlainString() + "\"";
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder count = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+
+    public void observe(double seconds) {
+        int i = 0;
+        while (i < BOUNDS.length && seconds > BOUNDS[i]) i++;
+        buckets[i].increment();
+        sum.add(seconds);
+        count.increment();
+    }
+
+    public void observeNanos(long nanos) {
+        observe(nanos / 1_000_000_000.0);
+    }
+
+    public void observeSince(long startNanos) {
+        observeNanos(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+
+    @Override
+    public void write(StringBuilder sb, String name, String labels) {
+        String bucketName = name + "_bucket";
+        long cumulative = 0L;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            cumulative += buckets[i].sum();
+            MetricsRegistry.sample(sb, bucketName, labels, LE[i], cumulative);
+        }
+        cumulative += buckets[BOUNDS.length].sum();
+        MetricsRegistry.sample(sb, bucketName, labels, "le=\"+Inf\"", cumulative);
+        MetricsRegistry.sample(sb, name + "_sum", labels, null, sum.sum());
+        MetricsRegistry.sample(sb, name + "_count", labels, null, cumulative);
+    }
+}
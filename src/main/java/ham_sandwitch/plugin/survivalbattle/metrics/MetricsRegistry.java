@@ -0,0 +1,147 @@
+package ham_sandwitch.plugin.survivalbattle.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+public class MetricsRegistry {
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final ConcurrentSkipListMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+    }
+
+
+    public static MetricsRegistry get() {
+        return INSTANCE;
+    }
+
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").child(labels, Counter::new);
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, "histogram").child(labels, Histogram::new);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").children.put(labelKey(labels), new Gauge(value));
+    }
+
+    public void clear() {
+        families.clear();
+    }
+
+    private Family family(String name, String help, String type) {
+        Family f = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!f.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + f.type);
+        }
+        return f;
+    }
+
+
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(8192);
+        for (Family f : families.values()) {
+            f.write(sb);
+        }
+        return sb.toString();
+    }
+
+    static String labelKey(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            String value = labels[i + 1] != null ? labels[i + 1] : "";
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') sb.append('\\').append(ch);
+                else if (ch == '\n') sb.append("\\n");
+                else sb.append(ch);
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    static void sample(StringBuilder sb, String name, String labels, String extraLabel, double value) {
+        sb.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            sb.append('{').append(labels);
+            if (extraLabel != null) {
+                if (!labels.isEmpty()) sb.append(',');
+                sb.append(extraLabel);
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(format(value)).append('\n');
+    }
+
+    static String format(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+
+    interface Metric {
+        void write(StringBuilder sb, String name, String labels);
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final Map<String, Metric> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Metric child(String[] labels, Supplier<Metric> factory) {
+            return children.computeIfAbsent(labelKey(labels), k -> factory.get());
+        }
+
+        void write(StringBuilder sb) {
+            if (children.isEmpty()) return;
+            sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            for (Map.Entry<String, Metric> e : new TreeMap<>(children).entrySet()) {
+                e.getValue().write(sb, name, e.getKey());
+            }
+        }
+    }
+
+    private static final class Gauge implements Metric {
+        private final DoubleSupplier value;
+
+        private Gauge(DoubleSupplier value) {
+            this.value = value;
+        }
+
+        @Override
+        public void write(StringBuilder sb, String name, String labels) {
+            double v;
+            try {
+                v = value.getAsDouble();
+            } catch (Exception e) {
+                return;
+            }
+            sample(sb, name, labels, null, v);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ham_sandwitch.plugin.survivalbattle.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsServer {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final JavaPlugin plugin;
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile String address = null;
+
+    public MetricsServer(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+
+    public synchronized boolean start() {
+        if (server != null) return true;
+        if (!plugin.getConfig().getBoolean("metrics.enabled", false)) return false;
+
+        String bind = plugin.getConfig().getString("metrics.bind", "127.0.0.1");
+        int port = plugin.getConfig().getInt("metrics.port", 9464);
+        try {
+            InetAddress host = InetAddress.getByName(bind);
+            if (!host.isLoopbackAddress()) {
+                plugin.getLogger().warning("Metrics endpoint is bound to non-loopback address " + bind + "; make sure it is firewalled.");
+            }
+            HttpServer http = HttpServer.create(new InetSocketAddress(host, port), 0);
+            http.createContext("/metrics", this::handle);
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "SurvivalBattle-Metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            http.setExecutor(executor);
+            http.start();
+            server = http;
+            address = "http://" + bind + ":" + port + "/metrics";
+            plugin.getLogger().info("Metrics endpoint listening on " + address);
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to start metrics endpoint on " + bind + ":" + port + ": " + e.getMessage());
+            if (executor != null) executor.shutdownNow();
+            executor = null;
+            return false;
+        }
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        address = null;
+    }
+
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = MetricsRegistry.get().scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Metrics scrape failed: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+
+    public boolean isRunning() {
+        return address != null;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+}
@@ -0,0 +1,46 @@
+package ham_sandwitch.plugin.survivalbattle.metrics;
+
+import java.lang.reflect.Method;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+public final class TimedListeners {
+
+    private TimedListeners() {
+    }
+
+
+    public static void register(Listener listener, Plugin plugin) {
+        String listenerName = listener.getClass().getSimpleName();
+        for (Method method : listener.getClass().getDeclaredMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic()) continue;
+            if (method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                plugin.getLogger().warning("Skipping invalid event handler " + listenerName + "#" + method.getName());
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            method.setAccessible(true);
+            EventExecutor target = EventExecutor.create(method, eventClass);
+            Histogram cost = MetricsRegistry.get().histogram("survivalbattle_listener_seconds",
+                    "Time spent inside plugin event handlers",
+                    "listener", listenerName, "event", eventClass.getSimpleName());
+
+            EventExecutor timed = (l, event) -> {
+                if (!eventClass.isInstance(event)) return;
+                long start = System.nanoTime();
+                try {
+                    target.execute(l, event);
+                } finally {
+                    cost.observeSince(start);
+                }
+            };
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(), timed, plugin, handler.ignoreCancelled());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ham_sandwitch.plugin.survivalbattle.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+public class PluginScheduler {
+
+    private static final boolean FOLIA = detectFolia();
+
+    private final JavaPlugin plugin;
+
+    public PluginScheduler(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+
+    public TaskHandle runGlobal(Runnable task) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getGlobalRegionScheduler().run(plugin, t -> task.run()));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    public TaskHandle runGlobalLater(Runnable task, long delayTicks) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getGlobalRegionScheduler().runDelayed(plugin, t -> task.run(), Math.max(1L, delayTicks)));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+    public TaskHandle runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+
+    public TaskHandle runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getRegionScheduler().run(plugin, world, chunkX, chunkZ, t -> task.run()));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    public TaskHandle runAtLater(World world, int chunkX, int chunkZ, Runnable task, long delayTicks) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getRegionScheduler().runDelayed(plugin, world, chunkX, chunkZ, t -> task.run(), Math.max(1L, delayTicks)));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+    public TaskHandle runAtTimer(World world, int chunkX, int chunkZ, Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getRegionScheduler().runAtFixedRate(plugin, world, chunkX, chunkZ, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+    public TaskHandle runAt(Location location, Runnable task) {
+        return runAt(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4, task);
+    }
+
+
+    public TaskHandle runForEntity(Entity entity, Runnable task) {
+        if (FOLIA) {
+            return TaskHandle.of(entity.getScheduler().run(plugin, t -> task.run(), null));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    public TaskHandle runForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (FOLIA) {
+            ScheduledTask scheduled = entity.getScheduler().run(plugin, t -> task.run(), retired);
+            if (scheduled == null) {
+                if (retired != null) retired.run();
+                return TaskHandle.CANCELLED;
+            }
+            return TaskHandle.of(scheduled);
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTask(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        }));
+    }
+
+    public TaskHandle runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        if (FOLIA) {
+            return TaskHandle.of(entity.getScheduler().runDelayed(plugin, t -> task.run(), null, Math.max(1L, delayTicks)));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+
+    public void runNowOrForEntity(Entity entity, Runnable task) {
+        if (isOwnedByCurrentThread(entity)) {
+            task.run();
+        } else {
+            runForEntity(entity, task);
+        }
+    }
+
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        if (FOLIA) {
+            return Bukkit.isOwnedByCurrentRegion(entity);
+        }
+        return Bukkit.isPrimaryThread();
+    }
+
+
+    public TaskHandle runAsync(Runnable task) {
+        if (FOLIA) {
+            return TaskHandle.of(Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run()));
+        }
+        return TaskHandle.of(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        if (FOLIA) {
+            return entity.teleportAsync(location);
+        }
+        return CompletableFuture.completedFuture(entity.teleport(location));
+    }
+
+    public void cancelAll() {
+        if (FOLIA) {
+            Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+            Bukkit.getAsyncScheduler().cancelTasks(plugin);
+            return;
+        }
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+}
@@ -0,0 +1,52 @@
+package ham_sandwitch.plugin.survivalbattle.scheduler;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+
+public interface TaskHandle {
+
+    TaskHandle CANCELLED = new TaskHandle() {
+        @Override
+        public void cancel() {}
+
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    };
+
+    void cancel();
+
+    boolean isCancelled();
+
+    static TaskHandle of(BukkitTask task) {
+        if (task == null) return CANCELLED;
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+
+    static TaskHandle of(ScheduledTask task) {
+        if (task == null) return CANCELLED;
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}